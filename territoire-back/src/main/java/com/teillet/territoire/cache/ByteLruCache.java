@@ -0,0 +1,76 @@
+package com.teillet.territoire.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * LRU de tableaux d'octets borné par la somme de leurs tailles, instrumenté sous {@code <metricPrefix>.requests|evictions|bytes}.
+ */
+public class ByteLruCache<K> {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // accessOrder = true -> ordre LRU
+    private final LinkedHashMap<K, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ByteLruCache(String metricPrefix, long maxBytes, long maxEntryBytes, MeterRegistry registry) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.hits = Counter.builder(metricPrefix + ".requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder(metricPrefix + ".requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder(metricPrefix + ".evictions").register(registry);
+        Gauge.builder(metricPrefix + ".bytes", this, ByteLruCache::bytes).register(registry);
+    }
+
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public Optional<byte[]> get(K key) {
+        byte[] value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(value);
+    }
+
+    public void put(K key, byte[] value) {
+        if (value.length > maxEntryBytes) return;
+
+        synchronized (entries) {
+            byte[] previous = entries.put(key, value);
+            if (previous != null) bytes -= previous.length;
+            bytes += value.length;
+
+            Iterator<Map.Entry<K, byte[]>> it = entries.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().getValue().length;
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.teillet.territoire.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compteurs de version partagés par toutes les instances, portés par les séquences {@code data_version_<nom>}
+ * (créées par schema.sql). Les caches locaux intègrent ces versions à leur clé :
+ * une écriture sur une instance invalide les caches de toutes les autres, et toutes calculent les mêmes ETags.
+ * <p>
+ * Les lectures sont servies depuis un instantané relu au plus toutes les {@code territoire.data-version.refresh} ;
+ * l'instance qui écrit relit dès la fin de sa transaction, les autres voient le changement après ce délai.
+ */
+@Component
+public class DataVersionStore {
+
+    public static final String MAP = "map";
+    public static final String MAP_ATTRIBUTES = "map_attributes";
+    public static final String CAMPAIGNS = "campaigns";
+
+    private static final List<String> NAMES = List.of(MAP, MAP_ATTRIBUTES, CAMPAIGNS);
+    // toutes les versions en une requête
+    private static final String SELECT_VERSIONS = NAMES.stream()
+            .map(name -> "SELECT '" + name + "' AS name, last_value AS version FROM " + sequence(name))
+            .collect(Collectors.joining(" UNION ALL "));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshNanos;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), 0, false);
+
+    public DataVersionStore(JdbcTemplate jdbcTemplate,
+                            @Value("${territoire.data-version.refresh:1s}") Duration refresh) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshNanos = refresh.toNanos();
+    }
+
+    public long read(String name) {
+        Snapshot s = snapshot;
+        if (!s.loaded() || System.nanoTime() - s.readAt() > refreshNanos) {
+            s = reload();
+        }
+        return s.versions().getOrDefault(name, 0L);
+    }
+
+    /**
+     * Incrémente les compteurs une fois la transaction en cours validée (rien si elle est annulée) : une autre
+     * instance ne peut pas mettre en cache, sous la nouvelle version, un état antérieur au commit. {@code nextval}
+     * ne prend aucun verrou, la transaction métier n'attend donc pas les écritures concurrentes.
+     */
+    public void increment(String... names) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    next(names);
+                }
+            });
+        } else {
+            next(names);
+        }
+    }
+
+    private void next(String... names) {
+        for (String name : names) {
+            jdbcTemplate.queryForObject("SELECT nextval('" + sequence(name) + "')", Long.class);
+        }
+        invalidate();
+    }
+
+    private static String sequence(String name) {
+        return "data_version_" + name;
+    }
+
+    private Snapshot reload() {
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query(SELECT_VERSIONS,
+                rs -> { versions.put(rs.getString("name"), rs.getLong("version")); });
+        Snapshot s = new Snapshot(versions, System.nanoTime(), true);
+        snapshot = s;
+        return s;
+    }
+
+    private void invalidate() {
+        snapshot = new Snapshot(Map.of(), 0, false);
+    }
+
+    private record Snapshot(Map<String, Long> versions, long readAt, boolean loaded) {}
+}
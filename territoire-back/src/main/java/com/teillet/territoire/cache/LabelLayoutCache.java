@@ -0,0 +1,43 @@
+package com.teillet.territoire.cache;
+
+import com.teillet.territoire.utils.LabelPlacer.PlacedLabel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Placements d'étiquettes déjà calculés, par (ville, taille de sortie en pixels, zoom, version des données) :
+ * la taille en pixels résume papier, orientation et dpi. LRU borné en nombre d'entrées.
+ */
+@Component
+public class LabelLayoutCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<LayoutKey, List<PlacedLabel>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LabelLayoutCache(@Value("${map.label-cache.max-entries:32}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<List<PlacedLabel>> get(LayoutKey key) {
+        synchronized (entries) {
+            return Optional.ofNullable(entries.get(key));
+        }
+    }
+
+    public void put(LayoutKey key, List<PlacedLabel> labels) {
+        synchronized (entries) {
+            entries.put(key, List.copyOf(labels));
+            while (entries.size() > maxEntries) {
+                entries.pollFirstEntry();
+            }
+        }
+    }
+
+    public record LayoutKey(UUID cityId, int width, int height, int zoom, long version) {}
+}
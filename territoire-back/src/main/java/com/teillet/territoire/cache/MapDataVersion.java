@@ -0,0 +1,38 @@
+package com.teillet.territoire.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version des données cartographiques, incrémentée à chaque modification ; les caches de rendu
+ * l'intègrent à leur clé, ce qui rend obsolètes les entrées calculées sur un état antérieur.
+ * Stockée en base ({@link DataVersionStore}) : identique sur toutes les instances, comme les ETags qui en dérivent.
+ * <ul>
+ *     <li>{@link #current()} : ce qui est dessiné sur les exports (enveloppes, noms, couleurs des villes)</li>
+ *     <li>{@link #currentWithAttributes()} : idem + attributs portés par les tuiles vectorielles (statut)</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class MapDataVersion {
+
+    private final DataVersionStore store;
+
+    public long current() {
+        return store.read(DataVersionStore.MAP);
+    }
+
+    public long currentWithAttributes() {
+        return store.read(DataVersionStore.MAP_ATTRIBUTES);
+    }
+
+    /** Géométrie, nom, type ou couleur modifiés : invalide les exports et les tuiles vectorielles */
+    public void bump() {
+        store.increment(DataVersionStore.MAP, DataVersionStore.MAP_ATTRIBUTES);
+    }
+
+    /** Seul le statut a changé : les exports PNG restent valides, les tuiles vectorielles non */
+    public void bumpAttributes() {
+        store.increment(DataVersionStore.MAP_ATTRIBUTES);
+    }
+}
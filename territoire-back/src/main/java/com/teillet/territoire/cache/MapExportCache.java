@@ -0,0 +1,98 @@
+package com.teillet.territoire.cache;
+
+import com.teillet.territoire.record.MapExportKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Cache des PNG d'export finis, indexé par paramètres d'export + version des données.
+ * LRU borné en octets ; une entrée calculée sur une version antérieure n'est plus jamais lue et finit évincée.
+ */
+@Component
+public class MapExportCache {
+
+    private final ByteLruCache<VersionedKey> entries;
+
+    public MapExportCache(
+            @Value("${map.export-cache.max-bytes:134217728}") long maxBytes,
+            @Value("${map.export-cache.max-entry-bytes:33554432}") long maxEntryBytes,
+            MeterRegistry registry
+    ) {
+        this.entries = new ByteLruCache<>("map.export.cache", maxBytes, maxEntryBytes, registry);
+    }
+
+    /** ETag fort : identique tant que les paramètres et la version des données le sont */
+    public String etag(MapExportKey key, long version) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha.digest((key.toString() + "|" + version).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<byte[]> get(MapExportKey key, long version) {
+        return entries.get(new VersionedKey(key, version));
+    }
+
+    public void put(MapExportKey key, long version, byte[] png) {
+        entries.put(new VersionedKey(key, version), png);
+    }
+
+    /**
+     * Flux qui recopie ce qui est écrit vers {@code target} et en garde une copie tant qu'elle reste
+     * sous la taille maximale d'une entrée ; {@link CapturingOutputStream#captured()} est vide sinon.
+     */
+    public CapturingOutputStream capture(OutputStream target) {
+        return new CapturingOutputStream(target, entries.maxEntryBytes());
+    }
+
+    public static class CapturingOutputStream extends FilterOutputStream {
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CapturingOutputStream(OutputStream target, long limit) {
+            super(target);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            keep(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            keep(b, off, len);
+        }
+
+        private void keep(byte[] b, int off, int len) {
+            if (copy == null) return;
+            if (copy.size() + len > limit) {
+                copy = null; // trop gros pour être mis en cache, on arrête de copier
+                return;
+            }
+            copy.write(b, off, len);
+        }
+
+        public Optional<byte[]> captured() {
+            return copy == null ? Optional.empty() : Optional.of(copy.toByteArray());
+        }
+    }
+
+    private record VersionedKey(MapExportKey key, long version) {}
+}
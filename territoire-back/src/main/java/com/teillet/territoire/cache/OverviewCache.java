@@ -0,0 +1,149 @@
+package com.teillet.territoire.cache;
+
+import com.teillet.territoire.config.TileCacheProperties;
+import com.teillet.territoire.record.TileImage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.locationtech.jts.geom.Envelope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Mosaïques de fond de carte déjà assemblées (images décodées), par zoom, pour les exports sur de grandes emprises.
+ * <ul>
+ *     <li>une emprise contenue dans une mosaïque du même zoom est servie telle quelle (l'appelant recadre)</li>
+ *     <li>à défaut, une mosaïque d'un zoom supérieur couvrant l'emprise est réduite par moitiés successives
+ *     (pyramide) : aucun téléchargement pour les zooms inférieurs</li>
+ * </ul>
+ * Borné en octets de pixels ; une mosaïque expire avec le TTL du cache de tuiles.
+ */
+@Component
+public class OverviewCache {
+
+    /** Écart de zoom maximal pour dériver une vue réduite (1/16 en largeur) */
+    private static final int MAX_DERIVE_LEVELS = 4;
+
+    private final long maxBytes;
+    private final TileCacheProperties tileProps;
+
+    // ordre LRU : le plus ancien en tête
+    private final List<Entry> entries = new ArrayList<>();
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter derived;
+    private final Counter misses;
+
+    public OverviewCache(
+            @Value("${map.overview-cache.max-bytes:268435456}") long maxBytes,
+            TileCacheProperties tileProps,
+            MeterRegistry registry
+    ) {
+        this.maxBytes = maxBytes;
+        this.tileProps = tileProps;
+        this.hits = Counter.builder("map.overview.cache.requests").tag("result", "hit").register(registry);
+        this.derived = Counter.builder("map.overview.cache.requests").tag("result", "derived").register(registry);
+        this.misses = Counter.builder("map.overview.cache.requests").tag("result", "miss").register(registry);
+        Gauge.builder("map.overview.cache.bytes", this, OverviewCache::bytes).register(registry);
+    }
+
+    /** Mosaïque au zoom {@code z} couvrant {@code env3857}, depuis le cache ou dérivée d'un zoom supérieur */
+    public Optional<TileImage> find(Envelope env3857, int z) {
+        Entry exact = null, finer = null;
+        synchronized (entries) {
+            evictExpired();
+            for (Entry e : entries) {
+                if (!e.mosaic().env3857().contains(env3857)) continue;
+                if (e.z() == z) exact = e;
+                else if (e.z() > z && e.z() - z <= MAX_DERIVE_LEVELS && (finer == null || e.z() < finer.z())) finer = e;
+            }
+            if (exact != null) {
+                touch(exact);
+                hits.increment();
+                return Optional.of(exact.mosaic());
+            }
+        }
+        if (finer == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        TileImage reduced = finer.mosaic();
+        for (int level = finer.z(); level > z; level--) {
+            reduced = halve(reduced);
+        }
+        put(z, reduced);
+        derived.increment();
+        return Optional.of(reduced);
+    }
+
+    public void put(int z, TileImage mosaic) {
+        long size = sizeOf(mosaic);
+        if (size > maxBytes) return;
+
+        synchronized (entries) {
+            entries.removeIf(e -> {
+                boolean covered = e.z() == z && mosaic.env3857().contains(e.mosaic().env3857());
+                if (covered) bytes -= sizeOf(e.mosaic());
+                return covered;
+            });
+            entries.add(new Entry(z, mosaic, Instant.now()));
+            bytes += size;
+
+            Iterator<Entry> it = entries.iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= sizeOf(it.next().mosaic());
+                it.remove();
+            }
+        }
+    }
+
+    private long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    private void touch(Entry e) {
+        entries.remove(e);
+        entries.add(e);
+    }
+
+    private void evictExpired() {
+        Instant limit = Instant.now().minus(tileProps.getTtl());
+        entries.removeIf(e -> {
+            boolean expired = e.createdAt().isBefore(limit);
+            if (expired) bytes -= sizeOf(e.mosaic());
+            return expired;
+        });
+    }
+
+    /** Réduction de moitié (zoom - 1) avec interpolation bilinéaire, même emprise */
+    private static TileImage halve(TileImage src) {
+        int w = Math.max(1, src.pixelWidth() / 2), h = Math.max(1, src.pixelHeight() / 2);
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src.img(), 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return new TileImage(out, src.env3857(), w, h);
+    }
+
+    private static long sizeOf(TileImage mosaic) {
+        return (long) mosaic.pixelWidth() * mosaic.pixelHeight() * 4;
+    }
+
+    private record Entry(int z, TileImage mosaic, Instant createdAt) {}
+}
@@ -0,0 +1,176 @@
+package com.teillet.territoire.cache;
+
+import com.teillet.territoire.config.TileCacheProperties;
+import com.teillet.territoire.record.CachedTile;
+import com.teillet.territoire.record.TileKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Cache de tuiles WMTS à deux niveaux :
+ * - LRU mémoire borné en octets (tuiles encodées, pas les BufferedImage décodées)
+ * - stockage disque persistant (survit aux redémarrages), avec date de récupération et validateurs ETag/Last-Modified
+ */
+@Slf4j
+@Component
+public class TileCache {
+
+    private final TileCacheProperties props;
+    private final Path root;
+
+    // accessOrder = true -> ordre LRU
+    private final LinkedHashMap<TileKey, CachedTile> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public TileCache(TileCacheProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.root = Path.of(props.getDirectory());
+
+        this.memoryHits = Counter.builder("map.tiles.cache.requests").tag("level", "memory").tag("result", "hit").register(registry);
+        this.diskHits = Counter.builder("map.tiles.cache.requests").tag("level", "disk").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("map.tiles.cache.requests").tag("level", "none").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("map.tiles.cache.evictions").tag("level", "memory").register(registry);
+        Gauge.builder("map.tiles.cache.memory.bytes", this, TileCache::memoryBytes).register(registry);
+    }
+
+    // ------------------- API publique -------------------
+
+    /** Mémoire puis disque ; une tuile trouvée sur disque est promue en mémoire */
+    public Optional<CachedTile> get(TileKey key) {
+        synchronized (memory) {
+            CachedTile tile = memory.get(key);
+            if (tile != null) {
+                memoryHits.increment();
+                return Optional.of(tile);
+            }
+        }
+
+        CachedTile fromDisk = readFromDisk(key);
+        if (fromDisk == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        diskHits.increment();
+        putInMemory(key, fromDisk);
+        return Optional.of(fromDisk);
+    }
+
+    public void put(TileKey key, CachedTile tile) {
+        putInMemory(key, tile);
+        writeToDisk(key, tile);
+    }
+
+    /** Vrai tant que la tuile est plus jeune que le TTL configuré */
+    public boolean isFresh(CachedTile tile) {
+        return tile.fetchedAt().plus(props.getTtl()).isAfter(Instant.now());
+    }
+
+    private long memoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    // ------------------- Mémoire -------------------
+
+    private void putInMemory(TileKey key, CachedTile tile) {
+        long max = props.getMemoryMaxBytes();
+        if (tile.data().length > max) return;
+
+        synchronized (memory) {
+            CachedTile previous = memory.put(key, tile);
+            if (previous != null) memoryBytes -= previous.data().length;
+            memoryBytes += tile.data().length;
+
+            Iterator<Map.Entry<TileKey, CachedTile>> it = memory.entrySet().iterator();
+            while (memoryBytes > max && it.hasNext()) {
+                Map.Entry<TileKey, CachedTile> eldest = it.next();
+                memoryBytes -= eldest.getValue().data().length;
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    // ------------------- Disque -------------------
+
+    private Path tilePath(TileKey key) {
+        return root
+                .resolve(safe(key.layer()))
+                .resolve(safe(key.style()))
+                .resolve(Integer.toString(key.z()))
+                .resolve(Integer.toString(key.x()))
+                .resolve(key.y() + "." + key.extension());
+    }
+
+    private static Path metaPath(Path tilePath) {
+        return tilePath.resolveSibling(tilePath.getFileName() + ".meta");
+    }
+
+    private CachedTile readFromDisk(TileKey key) {
+        Path tile = tilePath(key);
+        Path meta = metaPath(tile);
+        if (!Files.isRegularFile(tile) || !Files.isRegularFile(meta)) return null;
+
+        try (InputStream in = Files.newInputStream(meta)) {
+            Properties p = new Properties();
+            p.load(in);
+            byte[] data = Files.readAllBytes(tile);
+            Instant fetchedAt = Instant.ofEpochMilli(Long.parseLong(p.getProperty("fetchedAt", "0")));
+            return new CachedTile(data, p.getProperty("etag"), p.getProperty("lastModified"), fetchedAt);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Tuile illisible dans le cache disque {} : {}", tile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(TileKey key, CachedTile tile) {
+        Path target = tilePath(key);
+        try {
+            Files.createDirectories(target.getParent());
+
+            // écriture dans un fichier temporaire puis move atomique : un lecteur concurrent ne voit jamais de tuile tronquée
+            Path tmp = Files.createTempFile(target.getParent(), "tile", ".tmp");
+            Files.write(tmp, tile.data());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Properties p = new Properties();
+            p.setProperty("fetchedAt", Long.toString(tile.fetchedAt().toEpochMilli()));
+            if (tile.etag() != null) p.setProperty("etag", tile.etag());
+            if (tile.lastModified() != null) p.setProperty("lastModified", tile.lastModified());
+
+            Path tmpMeta = Files.createTempFile(target.getParent(), "meta", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmpMeta)) {
+                p.store(out, null);
+            }
+            Files.move(tmpMeta, metaPath(target), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Impossible d'écrire la tuile {} dans le cache disque : {}", target, e.getMessage());
+        }
+    }
+
+    private static String safe(String s) {
+        return s == null ? "_" : s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
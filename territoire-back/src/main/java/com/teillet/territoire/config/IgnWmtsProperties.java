@@ -6,6 +6,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Configuration
@@ -30,4 +32,29 @@ public class IgnWmtsProperties {
      * Format, ex: image/png ou image/jpeg
      */
     private String format;
+
+    /**
+     * Nombre maximal de requêtes de tuiles simultanées vers un même hôte
+     */
+    private int maxConcurrencyPerHost = 8;
+
+    /**
+     * Nombre de nouvelles tentatives par tuile (erreur réseau, 5xx ou 429)
+     */
+    private int maxRetries = 2;
+
+    /**
+     * Délai initial entre deux tentatives, doublé à chaque essai
+     */
+    private Duration retryBackoff = Duration.ofMillis(250);
+
+    /**
+     * Timeout d'une requête de tuile
+     */
+    private Duration tileTimeout = Duration.ofSeconds(8);
+
+    /**
+     * Échéance globale pour assembler une mosaïque ; les tuiles manquantes restent en fond gris
+     */
+    private Duration mosaicDeadline = Duration.ofSeconds(30);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.teillet.territoire.config;
+
+import com.teillet.territoire.record.AtlasRenderPool;
+import com.teillet.territoire.record.MapRenderPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MapRenderConfig {
+
+    /**
+     * Pool dédié au rendu des exports (construction des formes, bandes en parallèle) :
+     * n'entre pas en concurrence avec le pool commun. 0 = nombre de cœurs disponibles.
+     */
+    @Bean(destroyMethod = "close")
+    public MapRenderPool mapRenderPool(@Value("${map.render.parallelism:0}") int parallelism) {
+        int n = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new MapRenderPool(new ForkJoinPool(n));
+    }
+
+    /**
+     * Pool partagé du rendu des fiches d'atlas : borne le nombre de fiches rendues simultanément pour toute
+     * l'application, quel que soit le nombre d'exports en cours (les fiches en trop attendent dans la file).
+     */
+    @Bean(destroyMethod = "close")
+    public AtlasRenderPool atlasRenderPool(@Value("${map.atlas.concurrency:4}") int concurrency) {
+        return new AtlasRenderPool(new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), Thread.ofPlatform().name("atlas-render-", 1).daemon(true).factory()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.teillet.territoire.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "map.tile-cache")
+public class TileCacheProperties {
+    /**
+     * Répertoire du cache disque des tuiles, ex: /var/cache/territoire/tiles
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/territoire-tiles";
+
+    /**
+     * Taille maximale du cache mémoire (octets encodés PNG/JPEG)
+     */
+    private long memoryMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Durée pendant laquelle une tuile est servie sans revalidation auprès du serveur WMTS
+     */
+    private Duration ttl = Duration.ofDays(7);
+}
@@ -0,0 +1,25 @@
+package com.teillet.territoire.config;
+
+import com.teillet.territoire.tiles.DirectoryTileSource;
+import com.teillet.territoire.tiles.IgnWmtsTileSource;
+import com.teillet.territoire.tiles.TileSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Slf4j
+@Configuration
+public class TileSourceConfig {
+
+    /** Source utilisée par les exports ; les deux implémentations restent injectables (pré-génération) */
+    @Bean
+    @Primary
+    public TileSource tileSource(TileSourceProperties props, IgnWmtsTileSource wmts, DirectoryTileSource directory) {
+        if ("directory".equalsIgnoreCase(props.getSource())) {
+            log.info("Fond de carte hors ligne depuis {}", props.getDirectory());
+            return directory;
+        }
+        return wmts;
+    }
+}
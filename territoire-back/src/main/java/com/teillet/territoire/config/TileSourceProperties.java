@@ -0,0 +1,27 @@
+package com.teillet.territoire.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "map.tiles")
+public class TileSourceProperties {
+    /**
+     * Source des tuiles de fond de carte : wmts (IGN, en ligne) ou directory (pyramide locale hors ligne)
+     */
+    private String source = "wmts";
+
+    /**
+     * Racine de la pyramide locale, organisée en {z}/{x}/{y}.png (XYZ)
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/territoire-basemap";
+
+    /**
+     * Nombre maximal de tuiles pour une pré-génération (garde-fou contre une emprise / des zooms trop grands)
+     */
+    private int seedMaxTiles = 200_000;
+}
@@ -0,0 +1,41 @@
+package com.teillet.territoire.controller;
+
+import com.teillet.territoire.service.ITileSeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/exports/fond-de-carte")
+@RequiredArgsConstructor
+@Slf4j
+public class BasemapController {
+	private final ITileSeedService tileSeedService;
+
+	// 🔹 Pré-génération de la pyramide de tuiles locale sur l'emprise des territoires
+	@PostMapping("/pre-generation")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<?> seed(@RequestParam(defaultValue = "12,13,14,15,16") List<Integer> zooms) {
+		log.info("📌 Demande de pré-génération des tuiles, zooms {}", zooms);
+		try {
+			int tiles = tileSeedService.startSeed(zooms);
+			return ResponseEntity.accepted().body(Map.of("tiles", tiles));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+		}
+	}
+
+	@GetMapping("/pre-generation")
+	@PreAuthorize("hasRole('ADMIN')")
+	public Map<String, Boolean> seedStatus() {
+		return Map.of("running", tileSeedService.isRunning());
+	}
+}
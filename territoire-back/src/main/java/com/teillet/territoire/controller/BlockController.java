@@ -1,11 +1,13 @@
 package com.teillet.territoire.controller;
 
 import com.teillet.territoire.dto.BlockDto;
+import com.teillet.territoire.dto.BlockFeatureCollectionDto;
 import com.teillet.territoire.model.Block;
 import com.teillet.territoire.service.IBlockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +34,23 @@ public class BlockController {
 		return ResponseEntity.ok().build();
 	}
 
+	// 🔹 Ajout d'une FeatureCollection de blocks, une seule mise à jour de l'enveloppe
+	@PostMapping("/batch")
+	@PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISEUR')")
+	public ResponseEntity<?> addBlocks(@PathVariable UUID territoryId, @RequestBody BlockFeatureCollectionDto blocks) {
+		int count = blocks.getFeatures() == null ? 0 : blocks.getFeatures().size();
+		log.info("📌 Demande d'ajout de {} blocks au territoire {}", count, territoryId);
+
+		try {
+			String hull = blockService.addBlocksToTerritory(territoryId, blocks);
+			log.info("✅ {} blocks ajoutés au territoire {}", count, territoryId);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(hull);
+		} catch (IllegalArgumentException e) {
+			log.warn("⚠️ Blocks refusés pour le territoire {} : {}", territoryId, e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		}
+	}
+
 	// 🔹 Suppression d'un block
 	@DeleteMapping("/{blockId}")
 	@PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISEUR')")
@@ -2,10 +2,15 @@ package com.teillet.territoire.controller;
 
 import com.teillet.territoire.dto.CampaignDto;
 import com.teillet.territoire.dto.CampaignStatisticsDto;
+import com.teillet.territoire.dto.CampaignSummaryDto;
+import com.teillet.territoire.dto.RemainingTerritoriesPatchDto;
 import com.teillet.territoire.dto.SimplifiedTerritoryDto;
 import com.teillet.territoire.service.ICampaignService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +24,8 @@ import java.util.UUID;
 @Slf4j
 public class CampaignController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ICampaignService campaignService;
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -28,14 +35,27 @@ public class CampaignController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CampaignDto>> getAllCampaigns() {
-        log.info("Requête reçue : GET /api/campagnes");
-        List<CampaignDto> campaigns = campaignService.getAllCampaigns();
+    public ResponseEntity<PagedModel<CampaignSummaryDto>> getCampaigns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Requête reçue : GET /api/campagnes?page={}&size={}", page, size);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Pagination invalide : page >= 0 et taille entre 1 et " + MAX_PAGE_SIZE);
+        }
+        Page<CampaignSummaryDto> campaigns = campaignService.getCampaignSummaries(PageRequest.of(page, size));
+        log.info("Réponse envoyée : {} campagnes trouvées", campaigns.getNumberOfElements());
+        return ResponseEntity.ok(new PagedModel<>(campaigns));
+    }
+
+
+    @GetMapping("/cloturees-avec-territoires-restants")
+    public ResponseEntity<List<CampaignSummaryDto>> getClosedCampaignsWithRemainingTerritories() {
+        log.info("Requête reçue : GET /api/campagnes/cloturees-avec-territoires-restants");
+        List<CampaignSummaryDto> campaigns = campaignService.getClosedCampaignsWithRemainingTerritories();
         log.info("Réponse envoyée : {} campagnes trouvées", campaigns.size());
         return ResponseEntity.ok(campaigns);
     }
 
-
     @GetMapping("/{id}")
     public ResponseEntity<CampaignDto> getCampaignById(@PathVariable UUID id) {
         log.info("Requête reçue : GET /api/campagnes/{}", id);
@@ -81,6 +101,15 @@ public class CampaignController {
         return ResponseEntity.ok(updatedCampaign);
     }
 
+    @PatchMapping("/{id}/territoires-restants")
+    public ResponseEntity<Void> patchRemainingTerritories(@PathVariable UUID id, @RequestBody RemainingTerritoriesPatchDto patch) {
+        log.info("Requête reçue : PATCH /api/campagnes/{}/territoires-restants - {} ajoutés, {} retirés", id,
+                patch.getAdded() == null ? 0 : patch.getAdded().size(), patch.getRemoved() == null ? 0 : patch.getRemoved().size());
+        campaignService.patchRemainingTerritories(id, patch);
+        log.info("Réponse envoyée : territoires restants modifiés pour la campagne {}", id);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}/fermer")
     public ResponseEntity<CampaignDto> closeCampaign(@PathVariable UUID id) {
         log.info("Requête reçue : PUT /api/campagnes/{}/fermer", id);
@@ -1,6 +1,7 @@
 package com.teillet.territoire.controller;
 
 import com.teillet.territoire.dto.*;
+import com.teillet.territoire.enums.HullDetail;
 import com.teillet.territoire.mapper.TerritoryMapper;
 import com.teillet.territoire.model.AddressNotToDo;
 import com.teillet.territoire.model.Territory;
@@ -8,7 +9,7 @@ import com.teillet.territoire.service.IAddressNotToDoService;
 import com.teillet.territoire.service.IAssignmentService;
 import com.teillet.territoire.service.ICityService;
 import com.teillet.territoire.service.ITerritoryService;
-import com.teillet.territoire.utils.GeoJsonUtils;
+import com.teillet.territoire.utils.TwkbFeatureStreamWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -18,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -34,18 +36,33 @@ class TerritoryController {
 	private final IAddressNotToDoService addressNotToDoService;
 	private final ICityService cityService;
 
-	@GetMapping("/geojson")
-	public String getAllTerritories() throws IOException {
-		log.info("Début : Récupération des territoires en GeoJson");
+	private static final MediaType TWKB = MediaType.parseMediaType(TwkbFeatureStreamWriter.MEDIA_TYPE);
 
-		log.info("Appel au service getAllTerritories");
-		List<Territory> territories = territoryService.getAllTerritories();
+	// Chaque lecture existe en JSON et en TWKB : Spring choisit selon l'en-tête Accept (q-values comprises),
+	// le JSON restant servi par défaut (Accept absent ou générique).
 
-		log.info("Conversion des territoires en GeoJson");
-		String geoJSON = GeoJsonUtils.convertToGeoJSON(territories);
+	@GetMapping(value = "/geojson", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> getAllTerritories(
+			@RequestParam(required = false) Integer zoom,
+			@RequestParam(required = false) Double tolerance) {
+		HullDetail detail = HullDetail.of(zoom, tolerance);
+		log.info("Début : Récupération des territoires en GeoJson (détail {})", detail);
 
-		log.info("Fin : Récupération des territoires");
-		return geoJSON;
+		// écrit en flux : premier octet envoyé sans attendre la fin de la lecture des territoires
+		StreamingResponseBody body = out -> territoryService.writeTerritoriesGeoJson(out, detail);
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.varyBy(HttpHeaders.ACCEPT)
+				.body(body);
+	}
+
+	@GetMapping(value = "/geojson", produces = TwkbFeatureStreamWriter.MEDIA_TYPE)
+	public ResponseEntity<StreamingResponseBody> getAllTerritoriesTwkb(
+			@RequestParam(required = false) Integer zoom,
+			@RequestParam(required = false) Double tolerance) {
+		HullDetail detail = HullDetail.of(zoom, tolerance);
+		log.info("Début : Récupération des territoires en TWKB (détail {})", detail);
+		return twkb(out -> territoryService.writeTerritoriesTwkb(out, detail));
 	}
 
 	@PostMapping
@@ -58,21 +75,48 @@ class TerritoryController {
 		return createdTerritory;
 	}
 
-	@GetMapping("{territoryId}")
-	public TerritoryDto getTerritory(@PathVariable UUID territoryId) throws IOException {
+	@GetMapping(value = "{territoryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<TerritoryDto> getTerritory(@PathVariable UUID territoryId,
+													 @RequestParam(required = false) Integer zoom,
+													 @RequestParam(required = false) Double tolerance) throws IOException {
 		log.info("Début : Récupération du territoire {}", territoryId);
+		HullDetail detail = HullDetail.of(zoom, tolerance);
 		log.info("Appel au service getTerritory");
-		TerritoryDto territory = territoryService.getTerritoryDto(territoryId);
+		TerritoryDto territory = territoryService.getTerritoryDto(territoryId, detail);
 		log.info("Fin : Récupération du territoire");
-		return territory;
+		return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(territory);
+	}
+
+	@GetMapping(value = "{territoryId}", produces = TwkbFeatureStreamWriter.MEDIA_TYPE)
+	public ResponseEntity<StreamingResponseBody> getTerritoryTwkb(@PathVariable UUID territoryId,
+																  @RequestParam(required = false) Integer zoom,
+																  @RequestParam(required = false) Double tolerance) {
+		log.info("Début : Récupération du territoire {} en TWKB", territoryId);
+		HullDetail detail = HullDetail.of(zoom, tolerance);
+		return twkb(out -> territoryService.writeTerritoryDtoTwkb(territoryId, detail, out));
 	}
 
-	@GetMapping
-	public List<TerritoryDto> getTerritories() {
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<TerritoryDto>> getTerritories() {
 		log.info("Début : Récupération des territoires");
 		List<TerritoryDto> territories = territoryService.getAllTerritoryDtos();
 		log.info("Fin récupération des territoires");
-		return territories;
+		return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(territories);
+	}
+
+	@GetMapping(produces = TwkbFeatureStreamWriter.MEDIA_TYPE)
+	public ResponseEntity<StreamingResponseBody> getTerritoriesTwkb(@RequestParam(required = false) Integer zoom,
+																	@RequestParam(required = false) Double tolerance) {
+		log.info("Début : Récupération des territoires en TWKB");
+		HullDetail detail = HullDetail.of(zoom, tolerance);
+		return twkb(out -> territoryService.writeTerritoryDtosTwkb(out, detail));
+	}
+
+	private static ResponseEntity<StreamingResponseBody> twkb(StreamingResponseBody body) {
+		return ResponseEntity.ok()
+				.contentType(TWKB)
+				.varyBy(HttpHeaders.ACCEPT)
+				.body(body);
 	}
 
 	@PutMapping("{territoryId}")
@@ -1,14 +1,26 @@
 package com.teillet.territoire.controller;
 
+import com.teillet.territoire.record.CachedExport;
+import com.teillet.territoire.record.MapExportKey;
+import com.teillet.territoire.service.ITerritoryAtlasService;
+import com.teillet.territoire.utils.MapMath;
+import com.teillet.territoire.utils.RenderUtils;
 import com.teillet.territoire.service.impl.TerritoryMapService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -16,17 +28,82 @@ import java.util.UUID;
 @RequestMapping("/api/exports")
 public class TerritoryPrintController {
     private final TerritoryMapService mapService;
+    private final ITerritoryAtlasService atlasService;
 
     @GetMapping(value = "/territories.png", produces = MediaType.IMAGE_PNG_VALUE)
-    public ResponseEntity<byte[]> exportPng(
+    public ResponseEntity<StreamingResponseBody> exportPng(
             @RequestParam(defaultValue = "A3") String paper,
             @RequestParam(defaultValue = "landscape") String orientation,
             @RequestParam(defaultValue = "300") int dpi,
             @RequestParam(required = false) UUID cityId,
-            @RequestParam(defaultValue = "14") int zoom,
-            @RequestParam(defaultValue = "true") boolean showLabels
-    ) throws Exception {
-        byte[] png = mapService.generatePng(paper, orientation, dpi, cityId, zoom, showLabels);
-        return ResponseEntity.ok(png);
+            // zoom maximal du fond de carte ; par défaut, choisi selon l'emprise et la taille de sortie
+            @RequestParam(defaultValue = "19") int zoom,
+            @RequestParam(defaultValue = "true") boolean showLabels,
+            WebRequest request
+    ) {
+        if (!RenderUtils.isSupportedDpi(dpi)) {
+            return ResponseEntity.badRequest().build();
+        }
+        MapExportKey key = MapExportKey.of(paper, orientation, dpi, cityId, zoom, showLabels);
+
+        // ETag fort uniquement pour un export complet déjà en cache : un rendu dont le fond est resté
+        // partiellement gris ne doit pas être revalidé (304) jusqu'au prochain changement de données
+        Optional<CachedExport> cached = mapService.cachedExport(key);
+        if (cached.isPresent()) {
+            String etag = cached.get().etag();
+            if (request.checkNotModified(etag)) {
+                // 304 : en-têtes positionnés par checkNotModified
+                return null;
+            }
+            byte[] png = cached.get().png();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(out -> out.write(png));
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                mapService.writeCachedPng(key, out);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Erreur lors du rendu de la carte", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    /** Atlas : une fiche PNG par territoire (pâtés, enveloppe, adresses à ne pas visiter), archive ZIP en streaming */
+    @GetMapping(value = "/atlas.zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> exportAtlas(
+            @RequestParam(defaultValue = "A4") String paper,
+            @RequestParam(defaultValue = "portrait") String orientation,
+            @RequestParam(defaultValue = "200") int dpi,
+            @RequestParam(required = false) UUID cityId,
+            // zoom maximal du fond de carte ; par défaut, choisi selon l'emprise et la taille de la fiche
+            @RequestParam(defaultValue = "19") int zoom
+    ) {
+        if (!RenderUtils.isSupportedDpi(dpi)) {
+            return ResponseEntity.badRequest().build();
+        }
+        int z = Math.max(0, Math.min(MapMath.MAX_ZOOM, zoom));
+        StreamingResponseBody body = out -> {
+            try {
+                atlasService.writeAtlasZip(cityId, paper, orientation, dpi, z, out);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Erreur lors du rendu de l'atlas", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("atlas.zip").build().toString())
+                .body(body);
     }
 }
@@ -0,0 +1,41 @@
+package com.teillet.territoire.controller;
+
+import com.teillet.territoire.service.ITerritoryTileService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/tiles")
+@RequiredArgsConstructor
+@Slf4j
+public class TileController {
+	public static final String MVT_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+
+	private final ITerritoryTileService tileService;
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<Void> handleIllegalArgumentException(IllegalArgumentException e) {
+		log.warn("Tuile invalide : {}", e.getMessage());
+		return ResponseEntity.badRequest().build();
+	}
+
+	@GetMapping(value = "/{z}/{x}/{y}.mvt", produces = MVT_MEDIA_TYPE)
+	public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y, WebRequest request) {
+		String etag = tileService.getTileEtag(z, x, y);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		byte[] tile = tileService.getTile(z, x, y);
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(MVT_MEDIA_TYPE))
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.body(tile);
+	}
+}
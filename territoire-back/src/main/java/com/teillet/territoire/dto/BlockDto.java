@@ -5,5 +5,6 @@ import java.util.List;
 
 @Data
 public class BlockDto {
+	private String type; // "Polygon" (facultatif)
 	private List<List<List<Double>>> coordinates; // [[[lng, lat], [lng, lat], ...]]
 }
@@ -0,0 +1,16 @@
+package com.teillet.territoire.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/** FeatureCollection GeoJSON de pâtés (géométries Polygon) pour un import en lot */
+@Data
+public class BlockFeatureCollectionDto {
+	private List<Feature> features;
+
+	@Data
+	public static class Feature {
+		private BlockDto geometry;
+	}
+}
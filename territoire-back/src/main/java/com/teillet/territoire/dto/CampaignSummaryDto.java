@@ -0,0 +1,29 @@
+package com.teillet.territoire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Campagne telle qu'affichée dans la liste : attributs et compteurs seulement,
+ * les territoires détaillés restent réservés à {@link CampaignDto}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignSummaryDto {
+    private UUID id;
+    private String name;
+    private String description;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private boolean closed;
+    private int territoriesCount;
+    private int remainingTerritoriesCount;
+    private int assignmentsCount;
+}
@@ -0,0 +1,17 @@
+package com.teillet.territoire.dto;
+
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Modification partielle des territoires restants d'une campagne : seuls les identifiants
+ * ajoutés et retirés sont transmis, pas la liste complète.
+ */
+@Data
+public class RemainingTerritoriesPatchDto {
+    private Set<UUID> added = new HashSet<>();
+    private Set<UUID> removed = new HashSet<>();
+}
@@ -0,0 +1,57 @@
+package com.teillet.territoire.enums;
+
+/**
+ * Niveau de détail des enveloppes envoyées au client.
+ * Chaque niveau simplifié est précalculé en base (ST_SimplifyPreserveTopology en Lambert 93) à chaque
+ * mise à jour de l'enveloppe : la tolérance est exprimée en mètres, le nombre de décimales des coordonnées
+ * GeoJSON est réduit en conséquence.
+ */
+public enum HullDetail {
+    FULL(0, 6),   // enveloppe complète (concave_hull)
+    HIGH(2, 5),   // concave_hull_high
+    MEDIUM(8, 5), // concave_hull_medium
+    LOW(30, 4);   // concave_hull_low
+
+    private final double toleranceMeters;
+    private final int decimals;
+
+    HullDetail(double toleranceMeters, int decimals) {
+        this.toleranceMeters = toleranceMeters;
+        this.decimals = decimals;
+    }
+
+    public double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    public int getDecimals() {
+        return decimals;
+    }
+
+    /**
+     * Niveau adapté à un zoom web (tuiles 256 px) : la tolérance reste sous la taille d'un pixel
+     * (~1,7 m/px au zoom 16, ~6,6 au zoom 14, ~26 au zoom 12 sous nos latitudes).
+     */
+    public static HullDetail forZoom(int zoom) {
+        if (zoom >= 17) return FULL;
+        if (zoom >= 15) return HIGH;
+        if (zoom >= 13) return MEDIUM;
+        return LOW;
+    }
+
+    /** Niveau le plus simplifié dont la tolérance ne dépasse pas celle demandée (en mètres) */
+    public static HullDetail forTolerance(double toleranceMeters) {
+        HullDetail best = FULL;
+        for (HullDetail detail : values()) {
+            if (detail.toleranceMeters <= toleranceMeters) best = detail;
+        }
+        return best;
+    }
+
+    /** Zoom prioritaire sur la tolérance ; sans l'un ni l'autre, enveloppe complète */
+    public static HullDetail of(Integer zoom, Double toleranceMeters) {
+        if (zoom != null) return forZoom(zoom);
+        if (toleranceMeters != null) return forTolerance(toleranceMeters);
+        return FULL;
+    }
+}
@@ -2,7 +2,10 @@ package com.teillet.territoire.mapper;
 
 import com.teillet.territoire.dto.AssignmentDto;
 import com.teillet.territoire.dto.SimplifiedTerritoryDto;
+import com.teillet.territoire.dto.CampaignDto;
 import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.model.Person;
+import com.teillet.territoire.repository.projection.AssignmentRow;
 
 public class AssignmentMapper {
 	// ✅ Constructeur pour convertir `Assignment` en `AssignmentDTO`
@@ -17,4 +20,24 @@ public class AssignmentMapper {
 				.campaign(CampaignMapper.toDto(assignment.getCampaign()))
 				.build();
 	}
+
+	/** Idem depuis une ligne de projection ; la campagne est fournie déjà convertie (partagée entre attributions) */
+	public static AssignmentDto toDto(AssignmentRow row, CampaignDto campaign) {
+		Person person = row.getPersonId() == null ? null : Person.builder()
+				.id(row.getPersonId())
+				.firstName(row.getPersonFirstName())
+				.lastName(row.getPersonLastName())
+				.phoneNumber(row.getPersonPhoneNumber())
+				.email(row.getPersonEmail())
+				.build();
+		return AssignmentDto.builder()
+				.id(row.getId())
+				.territory(SimplifiedTerritoryDto.builder().territoryId(row.getTerritoryId()).name(row.getTerritoryName()).status(row.getTerritoryStatus()).build())
+				.person(person)
+				.assignmentDate(row.getAssignmentDate())
+				.dueDate(row.getDueDate())
+				.returnDate(row.getReturnDate())
+				.campaign(campaign)
+				.build();
+	}
 }
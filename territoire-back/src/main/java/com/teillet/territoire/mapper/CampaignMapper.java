@@ -1,9 +1,14 @@
 package com.teillet.territoire.mapper;
 
 import com.teillet.territoire.dto.CampaignDto;
+import com.teillet.territoire.dto.CampaignSummaryDto;
 import com.teillet.territoire.dto.SimplifiedTerritoryDto;
 import com.teillet.territoire.model.Campaign;
+import com.teillet.territoire.repository.projection.CampaignSummaryRow;
+import com.teillet.territoire.repository.projection.CampaignTerritoryRow;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 public class CampaignMapper {
@@ -53,4 +58,47 @@ public class CampaignMapper {
         return dto;
     }
 
+    /** Même DTO construit à partir des projections, sans charger la campagne ni ses collections */
+    public static CampaignDto toDto(CampaignSummaryRow row, List<CampaignTerritoryRow> territories, List<CampaignTerritoryRow> remainingTerritories) {
+        return CampaignDto.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .startDate(row.getStartDate())
+                .endDate(row.getEndDate())
+                .closed(row.isClosed())
+                .assignmentsCount(row.getAssignmentsCount() != null ? row.getAssignmentsCount() : 0)
+                .territories(toSimplifiedDtos(territories))
+                .remainingTerritories(toSimplifiedDtos(remainingTerritories))
+                .build();
+    }
+
+    public static CampaignSummaryDto toSummaryDto(CampaignSummaryRow row) {
+        return CampaignSummaryDto.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .startDate(row.getStartDate())
+                .endDate(row.getEndDate())
+                .closed(row.isClosed())
+                .territoriesCount(row.getTerritoriesCount())
+                .remainingTerritoriesCount(row.getRemainingTerritoriesCount())
+                .assignmentsCount(row.getAssignmentsCount())
+                .build();
+    }
+
+    private static List<SimplifiedTerritoryDto> toSimplifiedDtos(List<CampaignTerritoryRow> rows) {
+        if (rows == null) return new ArrayList<>();
+        return rows.stream()
+                .map(row -> SimplifiedTerritoryDto.builder()
+                        .territoryId(row.getTerritoryId())
+                        .name(row.getName())
+                        .status(row.getStatus())
+                        .type(row.getType())
+                        .cityId(row.getCityId())
+                        .cityName(row.getCityName())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
 }
@@ -1,20 +1,40 @@
 package com.teillet.territoire.mapper;
 
 import com.teillet.territoire.dto.AddTerritoryDto;
+import com.teillet.territoire.dto.AssignmentDto;
+import com.teillet.territoire.dto.CityDto;
+import com.teillet.territoire.dto.LatLong;
 import com.teillet.territoire.dto.TerritoryDto;
+import com.teillet.territoire.enums.HullDetail;
 import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.model.AddressNotToDo;
+import com.teillet.territoire.model.Block;
 import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.projection.TerritoryListRow;
 import com.teillet.territoire.service.ICityService;
 import com.teillet.territoire.utils.TerritoryUtils;
+import org.locationtech.jts.geom.MultiPolygon;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.teillet.territoire.utils.GeoJsonUtils.convertToGeoJSON;
 
 public class TerritoryMapper {
 	public static TerritoryDto toDto(Territory territory) throws IOException {
+		return toDto(territory, HullDetail.FULL);
+	}
+
+	public static TerritoryDto toDto(Territory territory, HullDetail detail) throws IOException {
+		TerritoryDto territoryDto = toDtoWithoutGeojson(territory);
+		territoryDto.setGeojson(convertToGeoJSON(territory.getBlocks(), hullFor(territory, detail), detail));
+		return territoryDto;
+	}
+
+	/** Attributs seuls : les géométries sont transmises à part (flux TWKB) */
+	public static TerritoryDto toDtoWithoutGeojson(Territory territory) {
 		TerritoryDto territoryDto = new TerritoryDto();
 		territoryDto.setId(territory.getId().toString());
 		territoryDto.setName(territory.getName());
@@ -25,7 +45,6 @@ public class TerritoryMapper {
 		territoryDto.setAddressesNotToDo(new ArrayList<>(territory.getAddressesNotToDo()));
 		territoryDto.setAssignments(territory.getAssignments().stream().map(AssignmentMapper::toDto).toList());
 		territoryDto.setNote(territory.getNote());
-		territoryDto.setGeojson(convertToGeoJSON(territory.getBlocks(), territory.getConcaveHull()));
 		territoryDto.setLastVisitedOn(TerritoryUtils.getLastVisitedOn(territory));
 		territoryDto.setAssignedTo(TerritoryUtils.getAssignedTo(territory));
 		territoryDto.setAssignedOn(TerritoryUtils.getAssignedOn(territory));
@@ -38,6 +57,59 @@ public class TerritoryMapper {
 		return territoryDto;
 	}
 
+	/**
+	 * DTO de la liste des territoires, assemblé à partir des projections : pâtés, adresses et attributions
+	 * sont fournis déjà regroupés par territoire, aucune association n'est chargée.
+	 */
+	public static TerritoryDto toDto(TerritoryListRow row, List<Block> blocks, List<AddressNotToDo> addressesNotToDo,
+									 List<AssignmentDto> assignments) throws IOException {
+		TerritoryDto territoryDto = toDtoWithoutGeojson(row, addressesNotToDo, assignments);
+		territoryDto.setGeojson(convertToGeoJSON(blocks, row.getConcaveHull()));
+		return territoryDto;
+	}
+
+	/** Attributs seuls, à partir des projections (flux TWKB de la liste) */
+	public static TerritoryDto toDtoWithoutGeojson(TerritoryListRow row, List<AddressNotToDo> addressesNotToDo,
+												   List<AssignmentDto> assignments) {
+		TerritoryDto territoryDto = new TerritoryDto();
+		territoryDto.setId(row.getId().toString());
+		territoryDto.setName(row.getName());
+		territoryDto.setStatus(row.getStatus());
+		territoryDto.setType(row.getType());
+		territoryDto.setLastModifiedDate(row.getLastModifiedDate().toString());
+		territoryDto.setCity(CityDto.builder()
+				.id(row.getCityId())
+				.name(row.getCityName())
+				.center(LatLong.builder()
+						.latitude(row.getCityCenter().getY())
+						.longitude(row.getCityCenter().getX())
+						.build())
+				.build());
+		territoryDto.setAddressesNotToDo(addressesNotToDo);
+		territoryDto.setAssignments(assignments);
+		territoryDto.setNote(row.getNote());
+		territoryDto.setLastVisitedOn(TerritoryUtils.lastVisitedOn(row.getLastReturnDate()));
+		territoryDto.setAssignedTo(TerritoryUtils.assignedTo(TerritoryUtils.assigneeName(row.getCurrentAssigneeFirstName(), row.getCurrentAssigneeLastName()), row.getCurrentAssignedOn()));
+		territoryDto.setAssignedOn(TerritoryUtils.assignedOn(row.getCurrentAssignedOn()));
+		territoryDto.setWaitedFor(TerritoryUtils.waitedFor(row.getCurrentAssignedOn(), row.getCurrentDueDate()));
+
+		if (Boolean.TRUE.equals(row.getHasMap())) {
+			territoryDto.setTerritoryMapId(row.getId().toString());
+		}
+		return territoryDto;
+	}
+
+	/** Variante simplifiée de l'enveloppe, ou l'enveloppe complète tant qu'elle n'a pas été calculée */
+	public static MultiPolygon hullFor(Territory territory, HullDetail detail) {
+		MultiPolygon simplified = switch (detail) {
+			case HIGH -> territory.getConcaveHullHigh();
+			case MEDIUM -> territory.getConcaveHullMedium();
+			case LOW -> territory.getConcaveHullLow();
+			case FULL -> null;
+		};
+		return simplified != null ? simplified : territory.getConcaveHull();
+	}
+
 	public static Territory fromDto(AddTerritoryDto addTerritoryDto, ICityService cityService) {
 		Territory territory = new Territory();
 		territory.setName(addTerritoryDto.getName());
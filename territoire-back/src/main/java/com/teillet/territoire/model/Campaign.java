@@ -6,7 +6,9 @@ import lombok.*;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -32,7 +34,7 @@ public class Campaign {
         joinColumns = @JoinColumn(name = "campaign_id"),
         inverseJoinColumns = @JoinColumn(name = "territory_id")
     )
-    private List<Territory> territories = new ArrayList<>();
+    private Set<Territory> territories = new HashSet<>();
 
     @ManyToMany
     @JoinTable(
@@ -40,7 +42,7 @@ public class Campaign {
         joinColumns = @JoinColumn(name = "campaign_id"),
         inverseJoinColumns = @JoinColumn(name = "territory_id")
     )
-    private List<Territory> remainingTerritories = new ArrayList<>();
+    private Set<Territory> remainingTerritories = new HashSet<>();
 
     @OneToMany(mappedBy = "campaign", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference(value = "campaign-assignments")
@@ -1,5 +1,6 @@
 package com.teillet.territoire.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.teillet.territoire.enums.TerritoryStatus;
 import com.teillet.territoire.enums.TerritoryType;
@@ -43,6 +44,24 @@ public class Territory {
 
 	private String note;
 
+	// Résumé des attributions (dernier retour, attribution en cours), maintenu en SQL par
+	// TerritoryRepository.refreshAssignmentSummaries à chaque changement : l'historique n'est plus parcouru pour l'affichage
+	@Column(name = "last_return_date", insertable = false, updatable = false)
+	private LocalDate lastReturnDate;
+
+	// personne de l'attribution en cours : le nom est mis en forme à l'affichage (Utils.formatName), pas stocké
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "current_person_id", insertable = false, updatable = false)
+	@JsonIgnore
+	@ToString.Exclude
+	private Person currentAssignee;
+
+	@Column(name = "current_assigned_on", insertable = false, updatable = false)
+	private LocalDate currentAssignedOn;
+
+	@Column(name = "current_due_date", insertable = false, updatable = false)
+	private LocalDate currentDueDate;
+
 	@OneToMany(mappedBy = "territory", orphanRemoval = true)
 	@JsonManagedReference
 	@ToString.Exclude
@@ -51,6 +70,23 @@ public class Territory {
 	@Column(name = "concave_hull", columnDefinition = "geometry(MultiPolygon, 4326)")
 	private MultiPolygon concaveHull;
 
+	// Variantes simplifiées de l'enveloppe (tolérances 2 / 8 / 30 m, cf. HullDetail), maintenues en SQL
+	// avec l'enveloppe : servies aux clients dézoomés à la place de la géométrie complète
+	@Column(name = "concave_hull_high", columnDefinition = "geometry(MultiPolygon, 4326)", insertable = false, updatable = false)
+	@JsonIgnore
+	@ToString.Exclude
+	private MultiPolygon concaveHullHigh;
+
+	@Column(name = "concave_hull_medium", columnDefinition = "geometry(MultiPolygon, 4326)", insertable = false, updatable = false)
+	@JsonIgnore
+	@ToString.Exclude
+	private MultiPolygon concaveHullMedium;
+
+	@Column(name = "concave_hull_low", columnDefinition = "geometry(MultiPolygon, 4326)", insertable = false, updatable = false)
+	@JsonIgnore
+	@ToString.Exclude
+	private MultiPolygon concaveHullLow;
+
 	@OneToMany(mappedBy = "territory", orphanRemoval = true)
 	@JsonManagedReference
 	@ToString.Exclude
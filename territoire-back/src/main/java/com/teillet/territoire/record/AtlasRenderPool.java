@@ -0,0 +1,15 @@
+package com.teillet.territoire.record;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool partagé du rendu des fiches d'atlas ; comme {@link MapRenderPool}, volontairement pas un bean Executor
+ * pour laisser Spring Boot configurer l'applicationTaskExecutor.
+ */
+public record AtlasRenderPool(ThreadPoolExecutor executor) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
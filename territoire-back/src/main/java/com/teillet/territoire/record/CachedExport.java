@@ -0,0 +1,4 @@
+package com.teillet.territoire.record;
+
+/** Export PNG complet trouvé dans le cache, avec l'ETag de la version sous laquelle il a été rendu */
+public record CachedExport(String etag, byte[] png) {}
@@ -0,0 +1,11 @@
+package com.teillet.territoire.record;
+
+import java.time.Instant;
+
+/** Tuile encodée (PNG/JPEG) + validateurs HTTP pour la revalidation conditionnelle */
+public record CachedTile(byte[] data, String etag, String lastModified, Instant fetchedAt) {
+
+    public CachedTile revalidated() {
+        return new CachedTile(data, etag, lastModified, Instant.now());
+    }
+}
@@ -0,0 +1,16 @@
+package com.teillet.territoire.record;
+
+import com.teillet.territoire.utils.MapMath;
+
+import java.util.UUID;
+
+/** Paramètres d'un export PNG, normalisés pour servir de clé de cache */
+public record MapExportKey(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels) {
+
+    public static MapExportKey of(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels) {
+        return new MapExportKey(
+                "A3".equalsIgnoreCase(paper) ? "A3" : "A4",
+                "portrait".equalsIgnoreCase(orientation) ? "portrait" : "landscape",
+                dpi, cityId, Math.max(0, Math.min(MapMath.MAX_ZOOM, zoom)), showLabels);
+    }
+}
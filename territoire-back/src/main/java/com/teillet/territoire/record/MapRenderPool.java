@@ -0,0 +1,15 @@
+package com.teillet.territoire.record;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pool de rendu des exports, exposé sous ce type plutôt que comme {@code Executor} : un bean Executor
+ * ferait renoncer Spring Boot à l'applicationTaskExecutor (traitements asynchrones de Spring MVC).
+ */
+public record MapRenderPool(ForkJoinPool pool) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,14 @@
+package com.teillet.territoire.record;
+
+public record TileKey(String layer, String style, String format, int z, int x, int y) {
+
+    /** Extension de fichier correspondant au format (png, jpg ou bin) */
+    public String extension() {
+        if (format == null) return "bin";
+        return switch (format.toLowerCase()) {
+            case "image/png" -> "png";
+            case "image/jpeg", "image/jpg" -> "jpg";
+            default -> "bin";
+        };
+    }
+}
@@ -1,13 +1,25 @@
 package com.teillet.territoire.repository;
 
 import com.teillet.territoire.model.AddressNotToDo;
+import com.teillet.territoire.repository.projection.TerritoryAddressRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AddressNotToDoRepository  extends JpaRepository<AddressNotToDo, UUID> {
 	Optional<AddressNotToDo> findByIdAndTerritory_Id(UUID id, UUID id1);
+
+	/** Toutes les adresses à ne pas faire, sans charger leur territoire (liste des territoires) */
+	@Query("""
+			SELECT a.territory.id AS territoryId, a.id AS id, a.street AS street, a.number AS number,
+			       a.zipCode AS zipCode, a.city AS city, a.date AS date
+			FROM AddressNotToDo a
+			WHERE a.territory IS NOT NULL
+			""")
+	List<TerritoryAddressRow> findAllAddressRows();
 }
@@ -1,8 +1,11 @@
 package com.teillet.territoire.repository;
 
 import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.repository.projection.AssignmentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -12,15 +15,49 @@ import java.util.UUID;
 
 @Repository
 public interface AssignmentRepository extends JpaRepository<Assignment, UUID> {
-	List<Assignment> findByDueDateBeforeAndReturnDateIsNull(LocalDate date);
-
 	Optional<Assignment> findByReturnDateNullAndTerritory_Id(UUID id);
 
 	void deleteByTerritory_Id(UUID territoryId);
 
 	List<Assignment> findAssignmentsByAssignmentDateAfterOrReturnDateAfter(LocalDate assignmentDateAfter, LocalDate returnDateAfter);
 
-	void deleteAssignmentByTerritory_City_Name(String cityName);
+	/**
+	 * Clôture de campagne : une attribution (déjà rendue à la fin de la campagne) par territoire utilisé,
+	 * c'est-à-dire de la campagne mais plus parmi les restants, insérées en une seule instruction.
+	 * Renvoie le nombre d'attributions créées.
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			INSERT INTO assignment (id, territory_id, campaign_id, assignment_date, due_date, return_date)
+			SELECT gen_random_uuid(), used.territory_id, c.id, c.start_date, c.end_date, c.end_date
+			FROM (
+				SELECT ct.territory_id FROM campaign_territory ct WHERE ct.campaign_id = :campaignId
+				EXCEPT
+				SELECT crt.territory_id FROM campaign_remaining_territory crt WHERE crt.campaign_id = :campaignId
+			) used
+			JOIN campaign c ON c.id = :campaignId
+			""")
+	int insertCampaignAssignments(@Param("campaignId") UUID campaignId);
+
+	/**
+	 * Supprime les attributions de tous les territoires (ou de ceux de la ville {@code cityName}) en une requête,
+	 * après les avoir copiées dans assignment_archive par la même instruction ; renvoie le nombre d'attributions retirées.
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = """
+			WITH revoked AS (
+				DELETE FROM assignment a
+				USING territory t
+				JOIN city c ON c.id = t.city_id
+				WHERE t.id = a.territory_id
+				  AND (CAST(:cityName AS text) IS NULL OR c.name = :cityName)
+				RETURNING a.id, a.territory_id, a.person_id, a.campaign_id, a.assignment_date, a.due_date, a.return_date
+			)
+			INSERT INTO assignment_archive (id, territory_id, person_id, campaign_id, assignment_date, due_date, return_date, revoked_at)
+			SELECT id, territory_id, person_id, campaign_id, assignment_date, due_date, return_date, now()
+			FROM revoked
+			""")
+	int archiveAndDeleteAssignments(@Param("cityName") String cityName);
 
 	void deleteAll();
 
@@ -28,6 +65,24 @@ public interface AssignmentRepository extends JpaRepository<Assignment, UUID> {
 
 	List<Assignment> findByPerson_Id(UUID personId);
 
+	/**
+	 * Toutes les attributions avec territoire, personne et campagne aplatis en une ligne,
+	 * triées par date d'attribution (liste des territoires, sans graphe d'entités).
+	 */
+	@Query("""
+			SELECT a.id AS id, t.id AS territoryId, t.name AS territoryName, t.status AS territoryStatus,
+			       p.id AS personId, p.firstName AS personFirstName, p.lastName AS personLastName,
+			       p.phoneNumber AS personPhoneNumber, p.email AS personEmail,
+			       a.assignmentDate AS assignmentDate, a.dueDate AS dueDate, a.returnDate AS returnDate,
+			       c.id AS campaignId
+			FROM Assignment a
+			JOIN a.territory t
+			LEFT JOIN a.person p
+			LEFT JOIN a.campaign c
+			ORDER BY a.assignmentDate, a.id
+			""")
+	List<AssignmentRow> findAllAssignmentRows();
+
 	/**
 	 * Calculates the overall average duration of assignments in days.
 	 * Only considers completed assignments (where returnDate is not null).
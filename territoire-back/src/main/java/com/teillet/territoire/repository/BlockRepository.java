@@ -1,12 +1,19 @@
 package com.teillet.territoire.repository;
 
 import com.teillet.territoire.model.Block;
+import com.teillet.territoire.repository.projection.BlockRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface BlockRepository extends JpaRepository<Block, UUID> {
 	void deleteByIdAndTerritory_Id(UUID blockId, UUID territoryId);
 
 	void deleteBlockByTerritory_Id(UUID territoryId);
+
+	/** Tous les pâtés, sans charger leur territoire (liste des territoires) */
+	@Query("SELECT b.territory.id AS territoryId, b.id AS id, b.block AS block FROM Block b WHERE b.territory IS NOT NULL")
+	List<BlockRow> findAllBlockRows();
 }
@@ -1,16 +1,112 @@
 package com.teillet.territoire.repository;
 
 import com.teillet.territoire.model.Campaign;
-import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.projection.CampaignStatisticsRow;
+import com.teillet.territoire.repository.projection.CampaignSummaryRow;
+import com.teillet.territoire.repository.projection.CampaignTerritoryRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface CampaignRepository extends JpaRepository<Campaign, UUID> {
-    List<Campaign> findAllByOrderByStartDateDesc();
-    List<Campaign> findByTerritoriesContaining(Territory territory);
-    List<Campaign> findByRemainingTerritoriesContaining(Territory territory);
+
+    String SUMMARY_SELECT = """
+            SELECT c.id AS id, c.name AS name, c.description AS description, c.startDate AS startDate,
+                   c.endDate AS endDate, c.closed AS closed, SIZE(c.territories) AS territoriesCount,
+                   SIZE(c.remainingTerritories) AS remainingTerritoriesCount, SIZE(c.assignments) AS assignmentsCount
+            FROM Campaign c
+            """;
+
+    /** Attributs des campagnes avec leurs compteurs, sans charger les collections */
+    @Query(SUMMARY_SELECT)
+    List<CampaignSummaryRow> findAllSummaries();
+
+    /** Campagnes clôturées ayant encore des territoires restants, reprenables par une nouvelle campagne */
+    @Query(SUMMARY_SELECT + "WHERE c.closed = true AND SIZE(c.remainingTerritories) > 0 ORDER BY c.startDate DESC, c.id")
+    List<CampaignSummaryRow> findClosedSummariesWithRemainingTerritories();
+
+    /** Idem, page par page, les plus récentes en premier */
+    @Query(value = SUMMARY_SELECT + "ORDER BY c.startDate DESC, c.id",
+            countQuery = "SELECT COUNT(c) FROM Campaign c")
+    Page<CampaignSummaryRow> findSummaries(Pageable pageable);
+
+    /** Territoires de toutes les campagnes, une ligne par couple (campagne, territoire) */
+    @Query("""
+            SELECT c.id AS campaignId, t.id AS territoryId, t.name AS name, t.status AS status, t.type AS type,
+                   ci.id AS cityId, ci.name AS cityName
+            FROM Campaign c
+            JOIN c.territories t
+            JOIN t.city ci
+            """)
+    List<CampaignTerritoryRow> findAllCampaignTerritories();
+
+    /** Idem pour les territoires restants */
+    @Query("""
+            SELECT c.id AS campaignId, t.id AS territoryId, t.name AS name, t.status AS status, t.type AS type,
+                   ci.id AS cityId, ci.name AS cityName
+            FROM Campaign c
+            JOIN c.remainingTerritories t
+            JOIN t.city ci
+            """)
+    List<CampaignTerritoryRow> findAllCampaignRemainingTerritories();
+
+    /**
+     * Ajoute des territoires restants, limités aux territoires de la campagne. Ceux déjà présents ne sont pas
+     * dupliqués (index unique campagne/territoire) mais restent comptés : le résultat est le nombre de
+     * territoires demandés qui appartiennent à la campagne.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            INSERT INTO campaign_remaining_territory (campaign_id, territory_id)
+            SELECT ct.campaign_id, ct.territory_id
+            FROM campaign_territory ct
+            WHERE ct.campaign_id = :campaignId
+              AND ct.territory_id IN (:territoryIds)
+            ON CONFLICT (campaign_id, territory_id) DO UPDATE SET territory_id = EXCLUDED.territory_id
+            """)
+    int addRemainingTerritories(@Param("campaignId") UUID campaignId, @Param("territoryIds") Collection<UUID> territoryIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            DELETE FROM campaign_remaining_territory
+            WHERE campaign_id = :campaignId
+              AND territory_id IN (:territoryIds)
+            """)
+    int removeRemainingTerritories(@Param("campaignId") UUID campaignId, @Param("territoryIds") Collection<UUID> territoryIds);
+
+    /**
+     * Territoires d'une campagne comptés par type en une passe sur les tables de jointure :
+     * un territoire est disponible s'il figure parmi les restants, utilisé sinon.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT t.type AS type,
+                   count(*) AS total,
+                   count(*) FILTER (WHERE crt.territory_id IS NULL) AS used,
+                   count(*) FILTER (WHERE crt.territory_id IS NOT NULL) AS available
+            FROM campaign_territory ct
+            JOIN territory t ON t.id = ct.territory_id
+            LEFT JOIN campaign_remaining_territory crt
+                   ON crt.campaign_id = ct.campaign_id AND crt.territory_id = ct.territory_id
+            WHERE ct.campaign_id = :campaignId
+            GROUP BY t.type
+            """)
+    List<CampaignStatisticsRow> countTerritoriesByType(@Param("campaignId") UUID campaignId);
+
+    /** Retire un territoire de toutes les campagnes, sans charger ni réécrire leurs collections */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM campaign_territory WHERE territory_id = :territoryId")
+    int deleteTerritoryLinks(@Param("territoryId") UUID territoryId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM campaign_remaining_territory WHERE territory_id = :territoryId")
+    int deleteRemainingTerritoryLinks(@Param("territoryId") UUID territoryId);
 }
@@ -2,6 +2,9 @@ package com.teillet.territoire.repository;
 
 import com.teillet.territoire.model.TerritoryReminder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -32,4 +35,13 @@ public interface TerritoryReminderRepository extends JpaRepository<TerritoryRemi
      */
     boolean existsByTerritories_IdAndPerson_Id(UUID territoryId, UUID personId);
 
+    /**
+     * Detach a territory from every reminder (the reminders themselves are kept)
+     * @param territoryId the territory ID
+     * @return number of links removed
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "DELETE FROM territory_reminder_territories WHERE territory_id = :territoryId")
+    int deleteTerritoryLinks(@Param("territoryId") UUID territoryId);
+
 }
\ No newline at end of file
@@ -1,44 +1,245 @@
 package com.teillet.territoire.repository;
 
+import com.teillet.territoire.repository.projection.AddressNotToDoRow;
 import com.teillet.territoire.repository.projection.Bbox3857;
+import com.teillet.territoire.repository.projection.TerritoryCardRow;
+import com.teillet.territoire.repository.projection.TerritoryFeatureRow;
 import com.teillet.territoire.repository.projection.TerritoryHullRow;
+import com.teillet.territoire.repository.projection.TerritoryListRow;
 import com.teillet.territoire.repository.projection.TerritoryStatisticsProjection;
 import com.teillet.territoire.model.Territory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TerritoryRepository extends JpaRepository<Territory, UUID> {
 
-    @Modifying
-    @Query(nativeQuery = true, value = """
-            UPDATE territory
-            SET concave_hull = (
-            	SELECT ST_Transform(
-            				   ST_Buffer(
-            						   ST_Union(
-            								   ST_Buffer(
-            										   ST_Transform(b.block, 2154), 7
-            								   )
-            						   ),
-            						   -8
-            				   ),
-            				   4326
-            		   )
-            	FROM block b
-            	WHERE b.territory_id = territory.id
+    /** Fin commune des mises à jour d'enveloppe : érosion, reprojections et date de modification depuis {@code merged} */
+    String HULL_UPDATE = """
+            eroded AS (
+            	SELECT m.geom AS buffered,
+            		   ST_Buffer(m.geom, -8) AS geom
+            	FROM merged m
+            ),
+            hull AS (
+            	SELECT e.buffered,
+            		   ST_Multi(ST_Transform(e.geom, 4326)) AS geom,
+            		   ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(e.geom, 2), 4326)) AS high,
+            		   ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(e.geom, 8), 4326)) AS medium,
+            		   ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(e.geom, 30), 4326)) AS low
+            	FROM eroded e
             )
-            WHERE territory.id = :id;
+            UPDATE territory
+            SET buffered_union      = hull.buffered,
+                concave_hull        = hull.geom,
+                concave_hull_high   = hull.high,
+                concave_hull_medium = hull.medium,
+                concave_hull_low    = hull.low,
+                concave_hull_3857   = ST_Transform(hull.geom, 3857),
+                label_point_3857    = ST_PointOnSurface(ST_Transform(hull.geom, 3857)),
+                last_modified_date  = CURRENT_DATE
+            FROM hull
+            WHERE territory.id = :id
+            """;
+
+    /**
+     * Verrou consultatif PostgreSQL pris pour la durée de la transaction en cours : faux s'il est déjà détenu
+     * (par une autre instance de l'application), sans attendre.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    /** Passe en retard les territoires dont une attribution en cours a dépassé son échéance ; renvoie le nombre de territoires modifiés */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            UPDATE territory t
+            SET status             = 'LATE',
+                last_modified_date = CURRENT_DATE
+            FROM assignment a
+            WHERE a.territory_id = t.id
+              AND a.return_date IS NULL
+              AND a.due_date < :today
+              AND t.status <> 'LATE'
+            """)
+    int markOverdueTerritoriesLate(@Param("today") LocalDate today);
+
+    /** Rend disponibles les territoires en attente dont le dernier retour est antérieur au seuil ; renvoie le nombre de territoires modifiés */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            UPDATE territory t
+            SET status = 'AVAILABLE'
+            WHERE t.status = 'PENDING'
+              AND t.last_return_date < :threshold
+            """)
+    int releasePendingTerritories(@Param("threshold") LocalDate threshold);
+
+    /**
+     * Remise à zéro après retrait de toutes les attributions (cf. AssignmentRepository.archiveAndDeleteAssignments) :
+     * territoires disponibles et résumé des attributions vidé, en une requête ; renvoie le nombre de territoires.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            UPDATE territory t
+            SET status              = 'AVAILABLE',
+                last_return_date    = NULL,
+                current_person_id   = NULL,
+                current_assigned_on = NULL,
+                current_due_date    = NULL
+            FROM city c
+            WHERE c.id = t.city_id
+              AND (CAST(:cityName AS text) IS NULL OR c.name = :cityName)
+            """)
+    int resetRevokedTerritories(@Param("cityName") String cityName);
+
+    /**
+     * Début commun des mises à jour du résumé des attributions : date du dernier retour et attribution en cours
+     * (la plus récente sans retour, avec sa personne). Chaque requête complète le WHERE.
+     */
+    String ASSIGNMENT_SUMMARY_UPDATE = """
+            UPDATE territory t
+            SET last_return_date = (SELECT MAX(a.return_date) FROM assignment a WHERE a.territory_id = t.id),
+                (current_person_id, current_assigned_on, current_due_date) = (
+                	SELECT a.person_id, a.assignment_date, a.due_date
+                	FROM assignment a
+                	WHERE a.territory_id = t.id
+                	  AND a.return_date IS NULL
+                	ORDER BY a.assignment_date DESC
+                	LIMIT 1
+                )
+            """;
+
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = ASSIGNMENT_SUMMARY_UPDATE + "WHERE t.id IN (:ids)")
+    void refreshAssignmentSummaries(@Param("ids") Collection<UUID> ids);
+
+    /** Territoires ayant une attribution dans la campagne (clôture) */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = ASSIGNMENT_SUMMARY_UPDATE + """
+            WHERE t.id IN (SELECT a.territory_id FROM assignment a WHERE a.campaign_id = :campaignId)
+            """)
+    void refreshAssignmentSummariesOfCampaign(@Param("campaignId") UUID campaignId);
+
+    /** Reconstruction complète (import Excel) */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = ASSIGNMENT_SUMMARY_UPDATE)
+    void refreshAllAssignmentSummaries();
+
+    /**
+     * Rattrapage au démarrage, limité aux territoires dont le résumé manque : attributions présentes mais
+     * résumé vide (données antérieures aux colonnes), ou attribution en cours sans sa personne (ancien format).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = ASSIGNMENT_SUMMARY_UPDATE + """
+            WHERE (t.current_assigned_on IS NULL AND t.last_return_date IS NULL
+                   AND EXISTS (SELECT 1 FROM assignment a WHERE a.territory_id = t.id))
+               OR (t.current_assigned_on IS NOT NULL AND t.current_person_id IS NULL)
             """)
+    int refreshMissingAssignmentSummaries();
+
+    /**
+     * Verrouille la ligne du territoire jusqu'à la fin de la transaction. À appeler avant une mise à jour
+     * d'enveloppe : l'instruction suivante lit l'union tamponnée validée par l'éditeur précédent au lieu
+     * d'écraser sa modification.
+     */
+    @Query(nativeQuery = true, value = "SELECT 1 FROM territory WHERE id = :id FOR UPDATE")
+    Integer lockForHullUpdate(@Param("id") UUID id);
+
+    /**
+     * Recalcule entièrement l'enveloppe du territoire à partir de ses pâtés (buffer +7 m / -8 m en Lambert 93),
+     * l'union tamponnée intermédiaire ainsi que les projections EPSG:3857 (enveloppe + point d'étiquette).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            WITH merged AS (
+            	SELECT ST_Multi(ST_Union(ST_Buffer(ST_Transform(b.block, 2154), 7))) AS geom
+            	FROM block b
+            	WHERE b.territory_id = :id
+            ),
+            """ + HULL_UPDATE)
     void updateConcaveHullTerritory(UUID id);
 
+    /**
+     * Ajout d'un pâté : son tampon est uni à l'union tamponnée existante, seule la géométrie du nouveau pâté est lue.
+     * Sans union enregistrée (territoire antérieur ou vide), l'union est calculée sur tous les pâtés.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            WITH added AS (
+            	SELECT ST_Buffer(ST_Transform(b.block, 2154), 7) AS geom
+            	FROM block b
+            	WHERE b.id = :blockId AND b.territory_id = :id
+            ),
+            merged AS (
+            	SELECT ST_Multi(
+            			   CASE
+            				   WHEN t.buffered_union IS NULL THEN (SELECT ST_Union(ST_Buffer(ST_Transform(b.block, 2154), 7))
+            													  FROM block b
+            													  WHERE b.territory_id = :id)
+            				   ELSE ST_Union(t.buffered_union, added.geom)
+            			   END
+            		   ) AS geom
+            	FROM territory t, added
+            	WHERE t.id = :id
+            ),
+            """ + HULL_UPDATE)
+    void addBlockToConcaveHull(@Param("id") UUID id, @Param("blockId") UUID blockId);
+
+    /**
+     * Supprime le pâté et met à jour l'enveloppe en ne réunissant que la composante connexe qui le contenait :
+     * les autres composantes de l'union tamponnée sont conservées telles quelles.
+     * Renvoie 0 si le territoire n'a pas d'union enregistrée (le pâté est tout de même supprimé) : l'appelant
+     * doit alors faire un recalcul complet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            WITH removed AS (
+            	DELETE FROM block
+            	WHERE id = :blockId AND territory_id = :id
+            	RETURNING ST_Buffer(ST_Transform(block, 2154), 7) AS geom
+            ),
+            parts AS (
+            	SELECT (ST_Dump(t.buffered_union)).geom AS geom
+            	FROM territory t
+            	WHERE t.id = :id
+            ),
+            affected AS (
+            	SELECT p.geom FROM parts p WHERE EXISTS (SELECT 1 FROM removed r WHERE ST_Intersects(p.geom, r.geom))
+            ),
+            remaining AS (
+            	-- composantes intactes + tampons des pâtés restants de la composante touchée
+            	-- (l'instantané du CTE voit encore le pâté supprimé, d'où le filtre sur l'id)
+            	SELECT p.geom FROM parts p WHERE NOT EXISTS (SELECT 1 FROM removed r WHERE ST_Intersects(p.geom, r.geom))
+            	UNION ALL
+            	SELECT ST_Buffer(ST_Transform(b.block, 2154), 7)
+            	FROM block b
+            	WHERE b.territory_id = :id
+            	  AND b.id <> :blockId
+            	  AND EXISTS (SELECT 1 FROM affected a WHERE ST_Intersects(a.geom, ST_Transform(b.block, 2154)))
+            ),
+            merged AS (
+            	SELECT ST_Multi(ST_Union(r.geom)) AS geom
+            	FROM remaining r
+            	HAVING EXISTS (SELECT 1 FROM removed)
+            	   AND EXISTS (SELECT 1 FROM territory t WHERE t.id = :id AND t.buffered_union IS NOT NULL)
+            ),
+            """ + HULL_UPDATE)
+    int removeBlockFromConcaveHull(@Param("id") UUID id, @Param("blockId") UUID blockId);
+
+    @Query(nativeQuery = true, value = "SELECT ST_AsGeoJSON(concave_hull, 6) FROM territory WHERE id = :id")
+    String findConcaveHullGeoJson(UUID id);
+
     @Query(value = """
                 SELECT t.status AS status, COUNT(*) AS total
                 FROM Territory t
@@ -98,28 +299,116 @@ public interface TerritoryRepository extends JpaRepository<Territory, UUID> {
     @Query(value = """
             SELECT
                 t.name AS name,
-                ST_AsBinary(ST_Transform(t.concave_hull, 3857))                    AS hullWkb,
-                ST_AsBinary(ST_PointOnSurface(ST_Transform(t.concave_hull, 3857))) AS labelWkb,
+                ST_AsBinary(t.concave_hull_3857) AS hullWkb,
+                ST_AsBinary(t.label_point_3857)  AS labelWkb,
                 c.color_hex AS cityColorHex
             FROM territory t
             JOIN city c ON c.id = t.city_id
-            WHERE t.concave_hull IS NOT NULL
+            WHERE t.concave_hull_3857 IS NOT NULL
             """, nativeQuery = true)
     List<TerritoryHullRow> findAllProjected3857();
 
     @Query(value = """
             SELECT
                 t.name AS name,
-                ST_AsBinary(ST_Transform(t.concave_hull, 3857))                    AS hullWkb,
-                ST_AsBinary(ST_PointOnSurface(ST_Transform(t.concave_hull, 3857))) AS labelWkb,
+                ST_AsBinary(t.concave_hull_3857) AS hullWkb,
+                ST_AsBinary(t.label_point_3857)  AS labelWkb,
                 c.color_hex AS cityColorHex
             FROM territory t
             JOIN city c ON c.id = t.city_id
-            WHERE t.concave_hull IS NOT NULL
+            WHERE t.concave_hull_3857 IS NOT NULL
               AND t.city_id = :cityId
             """, nativeQuery = true)
     List<TerritoryHullRow> findAllProjected3857ByCityId(UUID cityId);
 
+    /**
+     * Lignes de /api/territoires/geojson, lues en flux (curseur, nécessite une transaction) : attributs
+     * d'affichage lus dans le résumé des attributions (dernier retour, attribution en cours), sans parcourir l'historique.
+     * {@code detail} (nom d'un {@link com.teillet.territoire.enums.HullDetail}) choisit la variante de l'enveloppe,
+     * l'enveloppe complète servant tant que la variante n'a pas été calculée.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    @Query(value = """
+            SELECT
+                t.id AS id,
+                t.name AS name,
+                t.status AS status,
+                t.type AS type,
+                c.name AS cityName,
+                CAST(t.last_return_date AS text) AS lastVisitedOn,
+                p.first_name AS assigneeFirstName,
+                p.last_name AS assigneeLastName,
+                CAST(t.current_assigned_on AS text) AS assignedOn,
+                CAST(t.current_due_date AS text) AS dueDate,
+                ST_AsBinary(CASE :detail
+                                WHEN 'HIGH' THEN COALESCE(t.concave_hull_high, t.concave_hull)
+                                WHEN 'MEDIUM' THEN COALESCE(t.concave_hull_medium, t.concave_hull)
+                                WHEN 'LOW' THEN COALESCE(t.concave_hull_low, t.concave_hull)
+                                ELSE t.concave_hull
+                            END) AS hullWkb
+            FROM territory t
+            JOIN city c ON c.id = t.city_id
+            LEFT JOIN person p ON p.id = t.current_person_id
+            """, nativeQuery = true)
+    Stream<TerritoryFeatureRow> streamTerritoryFeatures(@Param("detail") String detail);
+
+    /**
+     * Attributs de la liste des territoires avec leur ville, sans charger le graphe d'entités ni le plan scanné.
+     * L'enveloppe est celle du niveau de détail demandé (nom d'un {@code HullDetail}), complète à défaut.
+     */
+    @Query("""
+            SELECT t.id AS id, t.name AS name, t.status AS status, t.type AS type,
+                   t.lastModifiedDate AS lastModifiedDate, t.note AS note,
+                   t.lastReturnDate AS lastReturnDate,
+                   p.firstName AS currentAssigneeFirstName, p.lastName AS currentAssigneeLastName,
+                   t.currentAssignedOn AS currentAssignedOn, t.currentDueDate AS currentDueDate,
+                   CASE WHEN t.territoryMap IS NOT NULL THEN true ELSE false END AS hasMap,
+                   c.id AS cityId, c.name AS cityName, c.center AS cityCenter,
+                   CASE :detail
+                       WHEN 'HIGH' THEN COALESCE(t.concaveHullHigh, t.concaveHull)
+                       WHEN 'MEDIUM' THEN COALESCE(t.concaveHullMedium, t.concaveHull)
+                       WHEN 'LOW' THEN COALESCE(t.concaveHullLow, t.concaveHull)
+                       ELSE t.concaveHull
+                   END AS concaveHull
+            FROM Territory t
+            JOIN t.city c
+            LEFT JOIN t.currentAssignee p
+            """)
+    List<TerritoryListRow> findAllListRows(@Param("detail") String detail);
+
+    /** Fiches de l'atlas : enveloppe et pâtés en 3857, tous les territoires ou ceux d'une ville */
+    @Query(value = """
+            SELECT
+                t.id AS id,
+                t.name AS name,
+                c.name AS cityName,
+                c.color_hex AS cityColorHex,
+                ST_AsBinary(t.concave_hull_3857) AS hullWkb,
+                (SELECT ST_AsBinary(ST_Collect(ST_Transform(b.block, 3857)))
+                 FROM block b
+                 WHERE b.territory_id = t.id) AS blocksWkb
+            FROM territory t
+            JOIN city c ON c.id = t.city_id
+            WHERE t.concave_hull_3857 IS NOT NULL
+              AND (CAST(:cityId AS uuid) IS NULL OR t.city_id = :cityId)
+            ORDER BY c.name, t.name
+            """, nativeQuery = true)
+    List<TerritoryCardRow> findAtlasCards(@Param("cityId") UUID cityId);
+
+    @Query(value = """
+            SELECT
+                a.territory_id AS territoryId,
+                a.number AS number,
+                a.street AS street,
+                a.zip_code AS zipCode,
+                a.city AS city
+            FROM address_not_to_do a
+            JOIN territory t ON t.id = a.territory_id
+            WHERE CAST(:cityId AS uuid) IS NULL OR t.city_id = :cityId
+            ORDER BY a.street, a.number
+            """, nativeQuery = true)
+    List<AddressNotToDoRow> findAtlasAddressesNotToDo(@Param("cityId") UUID cityId);
+
     @Query(value = """
             SELECT
                 ST_XMin(ext)::float8 AS minx,
@@ -127,9 +416,9 @@ public interface TerritoryRepository extends JpaRepository<Territory, UUID> {
                 ST_XMax(ext)::float8 AS maxx,
                 ST_YMax(ext)::float8 AS maxy
             FROM (
-                SELECT ST_Extent(ST_Transform(concave_hull, 3857)) AS ext
+                SELECT ST_Extent(concave_hull_3857) AS ext
                 FROM territory
-                WHERE concave_hull IS NOT NULL
+                WHERE concave_hull_3857 IS NOT NULL
             ) s
             """, nativeQuery = true)
     Bbox3857 findBbox3857();
@@ -140,11 +429,37 @@ public interface TerritoryRepository extends JpaRepository<Territory, UUID> {
                        ST_XMax(ext)::float8 AS maxx,
                        ST_YMax(ext)::float8 AS maxy
                 FROM (
-                  SELECT ST_Extent(ST_Transform(concave_hull, 3857)) AS ext
+                  SELECT ST_Extent(concave_hull_3857) AS ext
             FROM territory
-            WHERE concave_hull IS NOT NULL
+            WHERE concave_hull_3857 IS NOT NULL
                     AND city_id = :cityId
                 ) s
             """, nativeQuery = true)
     Bbox3857 findBbox3857ByCityId(UUID cityId);
+
+    /**
+     * Tuile vectorielle (Mapbox Vector Tile) des enveloppes de territoires pour la tuile z/x/y (grille EPSG:3857).
+     * Couche "territories", attributs : id, name, status, type, city, cityColorHex.
+     */
+    @Query(value = """
+            WITH bounds AS (
+                SELECT ST_TileEnvelope(:z, :x, :y) AS geom
+            ),
+            mvtgeom AS (
+                SELECT
+                    ST_AsMVTGeom(t.concave_hull_3857, bounds.geom, 4096, 64, true) AS geom,
+                    t.id::text   AS id,
+                    t.name       AS name,
+                    t.status     AS status,
+                    t.type       AS type,
+                    c.name       AS city,
+                    c.color_hex  AS cityColorHex
+                FROM territory t
+                JOIN city c ON c.id = t.city_id, bounds
+                WHERE ST_Intersects(t.concave_hull_3857, bounds.geom)
+            )
+            SELECT ST_AsMVT(mvtgeom, 'territories', 4096, 'geom')
+            FROM mvtgeom
+            """, nativeQuery = true)
+    byte[] findMvtTile(int z, int x, int y);
 }
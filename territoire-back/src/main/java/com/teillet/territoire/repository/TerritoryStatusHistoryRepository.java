@@ -3,7 +3,9 @@ package com.teillet.territoire.repository;
 import com.teillet.territoire.model.TerritoryStatusHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 public interface TerritoryStatusHistoryRepository extends JpaRepository<TerritoryStatusHistory, UUID> {
+	boolean existsByDate(LocalDate date);
 }
@@ -0,0 +1,11 @@
+package com.teillet.territoire.repository.projection;
+
+import java.util.UUID;
+
+public interface AddressNotToDoRow {
+    UUID getTerritoryId();
+    String getNumber();
+    String getStreet();
+    String getZipCode();
+    String getCity();
+}
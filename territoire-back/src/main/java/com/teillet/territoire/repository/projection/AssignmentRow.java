@@ -0,0 +1,22 @@
+package com.teillet.territoire.repository.projection;
+
+import com.teillet.territoire.enums.TerritoryStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface AssignmentRow {
+    UUID getId();
+    UUID getTerritoryId();
+    String getTerritoryName();
+    TerritoryStatus getTerritoryStatus();
+    UUID getPersonId();          // null si la personne a été supprimée
+    String getPersonFirstName();
+    String getPersonLastName();
+    String getPersonPhoneNumber();
+    String getPersonEmail();
+    LocalDate getAssignmentDate();
+    LocalDate getDueDate();
+    LocalDate getReturnDate();
+    UUID getCampaignId();
+}
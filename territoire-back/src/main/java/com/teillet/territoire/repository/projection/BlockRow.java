@@ -0,0 +1,11 @@
+package com.teillet.territoire.repository.projection;
+
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.UUID;
+
+public interface BlockRow {
+    UUID getTerritoryId();
+    UUID getId();
+    Polygon getBlock();
+}
@@ -0,0 +1,9 @@
+package com.teillet.territoire.repository.projection;
+
+/** Comptage des territoires d'une campagne pour un type donné (type nul possible) */
+public interface CampaignStatisticsRow {
+    String getType();
+    Long getTotal();
+    Long getUsed();
+    Long getAvailable();
+}
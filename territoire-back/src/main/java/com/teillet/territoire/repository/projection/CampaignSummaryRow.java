@@ -0,0 +1,16 @@
+package com.teillet.territoire.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface CampaignSummaryRow {
+    UUID getId();
+    String getName();
+    String getDescription();
+    LocalDate getStartDate();
+    LocalDate getEndDate();
+    boolean isClosed();
+    Integer getTerritoriesCount();
+    Integer getRemainingTerritoriesCount();
+    Integer getAssignmentsCount();
+}
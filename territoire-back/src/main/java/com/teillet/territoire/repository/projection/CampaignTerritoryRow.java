@@ -0,0 +1,16 @@
+package com.teillet.territoire.repository.projection;
+
+import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.enums.TerritoryType;
+
+import java.util.UUID;
+
+public interface CampaignTerritoryRow {
+    UUID getCampaignId();
+    UUID getTerritoryId();
+    String getName();
+    TerritoryStatus getStatus();
+    TerritoryType getType();
+    UUID getCityId();
+    String getCityName();
+}
@@ -0,0 +1,14 @@
+package com.teillet.territoire.repository.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface TerritoryAddressRow {
+    UUID getTerritoryId();
+    UUID getId();
+    String getStreet();
+    String getNumber();
+    String getZipCode();
+    String getCity();
+    LocalDate getDate();
+}
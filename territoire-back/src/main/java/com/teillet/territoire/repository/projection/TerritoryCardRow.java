@@ -0,0 +1,12 @@
+package com.teillet.territoire.repository.projection;
+
+import java.util.UUID;
+
+public interface TerritoryCardRow {
+    UUID getId();
+    String getName();
+    String getCityName();
+    String getCityColorHex();
+    byte[] getHullWkb();    // ST_AsBinary(...) en 3857
+    byte[] getBlocksWkb();  // ST_AsBinary(ST_Collect(...)) en 3857, null si aucun pâté
+}
@@ -0,0 +1,17 @@
+package com.teillet.territoire.repository.projection;
+
+import java.util.UUID;
+
+public interface TerritoryFeatureRow {
+    UUID getId();
+    String getName();
+    String getStatus();
+    String getType();
+    String getCityName();
+    String getLastVisitedOn();     // date ISO de dernier retour, null si jamais parcouru
+    String getAssigneeFirstName(); // personne de l'attribution en cours, null sinon
+    String getAssigneeLastName();
+    String getAssignedOn();
+    String getDueDate();
+    byte[] getHullWkb();           // ST_AsBinary(concave_hull), 4326
+}
@@ -0,0 +1,28 @@
+package com.teillet.territoire.repository.projection;
+
+import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.enums.TerritoryType;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface TerritoryListRow {
+    UUID getId();
+    String getName();
+    TerritoryStatus getStatus();
+    TerritoryType getType();
+    LocalDate getLastModifiedDate();
+    String getNote();
+    LocalDate getLastReturnDate();
+    String getCurrentAssigneeFirstName();
+    String getCurrentAssigneeLastName();
+    LocalDate getCurrentAssignedOn();
+    LocalDate getCurrentDueDate();
+    Boolean getHasMap();    // plan scanné présent, sans lire l'image
+    UUID getCityId();
+    String getCityName();
+    Point getCityCenter();
+    MultiPolygon getConcaveHull();
+}
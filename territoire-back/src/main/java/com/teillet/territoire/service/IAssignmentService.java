@@ -3,7 +3,6 @@ package com.teillet.territoire.service;
 import com.teillet.territoire.dto.AssignmentDto;
 import com.teillet.territoire.model.Assignment;
 import com.teillet.territoire.model.Campaign;
-import com.teillet.territoire.model.Territory;
 import jakarta.transaction.Transactional;
 
 import java.time.LocalDate;
@@ -17,7 +16,9 @@ public interface IAssignmentService {
 	@Transactional
 	AssignmentDto returnTerritory(UUID assignment);
 
-    void checkOverdueAssignments();
+    /** Passe en retard les territoires dont l'attribution a dépassé son échéance ; renvoie le nombre de territoires modifiés */
+    @Transactional
+    int checkOverdueAssignments();
 
     Assignment getAssignment(UUID assignmentId);
 
@@ -30,8 +31,9 @@ public interface IAssignmentService {
 	@Transactional
 	AssignmentDto cancelAssignment(UUID territoryId);
 
+	/** Crée les attributions des territoires utilisés pendant la campagne ; renvoie leur nombre */
 	@Transactional
-	void createCampaignAssignments(Campaign campaign, List<Territory> usedTerritories);
+	int createCampaignAssignments(Campaign campaign);
 
 	List<AssignmentDto> getAssignmentsByPersonId(UUID personId);
 }
@@ -1,6 +1,7 @@
 package com.teillet.territoire.service;
 
 import com.teillet.territoire.dto.BlockDto;
+import com.teillet.territoire.dto.BlockFeatureCollectionDto;
 import com.teillet.territoire.model.Block;
 import jakarta.transaction.Transactional;
 
@@ -10,6 +11,9 @@ public interface IBlockService {
 	@Transactional
 	Block addBlockToTerritory(UUID territoryId, BlockDto blockDTO);
 
+	@Transactional
+	String addBlocksToTerritory(UUID territoryId, BlockFeatureCollectionDto blocks);
+
 	@Transactional
 	void removeBlockTerritory(UUID territoryId, UUID blockId);
 }
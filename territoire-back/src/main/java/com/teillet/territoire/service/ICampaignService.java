@@ -2,11 +2,16 @@ package com.teillet.territoire.service;
 
 import com.teillet.territoire.dto.CampaignDto;
 import com.teillet.territoire.dto.CampaignStatisticsDto;
+import com.teillet.territoire.dto.CampaignSummaryDto;
+import com.teillet.territoire.dto.RemainingTerritoriesPatchDto;
 import com.teillet.territoire.dto.SimplifiedTerritoryDto;
 import com.teillet.territoire.model.Territory;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -14,10 +19,26 @@ import java.util.UUID;
  */
 public interface ICampaignService {
 
-    List<CampaignDto> getAllCampaigns();
+    /**
+     * Liste paginée des campagnes, compteurs calculés en SQL ; le détail des territoires
+     * n'est fourni que par {@link #getCampaignById(UUID)}.
+     */
+    Page<CampaignSummaryDto> getCampaignSummaries(Pageable pageable);
+
+    /**
+     * Campagnes clôturées dont il reste des territoires, toutes pages confondues
+     * (choix de la campagne précédente à la création).
+     */
+    List<CampaignSummaryDto> getClosedCampaignsWithRemainingTerritories();
 
     CampaignDto getCampaignById(UUID id);
 
+    /**
+     * Toutes les campagnes converties en DTO par requêtes ensemblistes (trois requêtes quel que soit
+     * le nombre de campagnes), indexées par identifiant.
+     */
+    Map<UUID, CampaignDto> getCampaignDtosById();
+
     @Transactional
     CampaignDto createCampaign(CampaignDto campaignDto);
 
@@ -29,6 +50,13 @@ public interface ICampaignService {
     @Transactional
     CampaignDto updateRemainingTerritories(UUID id, List<SimplifiedTerritoryDto> remainingTerritories);
 
+    /**
+     * Applique uniquement les ajouts et retraits de territoires restants, par requêtes ciblées.
+     * Les territoires ajoutés doivent exister et faire partie de la campagne.
+     */
+    @Transactional
+    void patchRemainingTerritories(UUID id, RemainingTerritoriesPatchDto patch);
+
     @Transactional
     CampaignDto closeCampaign(UUID id);
 
@@ -53,4 +81,9 @@ public interface ICampaignService {
      * @return Statistics for the campaign
      */
     CampaignStatisticsDto getCampaignStatistics(UUID campaignId);
+
+    /**
+     * Invalide les statistiques de toutes les campagnes, à appeler quand le type d'un territoire change
+     */
+    void evictAllCampaignStatistics();
 }
@@ -0,0 +1,12 @@
+package com.teillet.territoire.service;
+
+import java.io.OutputStream;
+import java.util.UUID;
+
+public interface ITerritoryAtlasService {
+    /**
+     * Rend une fiche PNG par territoire (tous, ou ceux d'une ville) : fond de carte, pâtés, enveloppe et
+     * adresses à ne pas visiter. Les fiches sont rendues en parallèle et écrites dans l'archive ZIP au fil de l'eau.
+     */
+    void writeAtlasZip(UUID cityId, String paper, String orientation, int dpi, int zoom, OutputStream out) throws Exception;
+}
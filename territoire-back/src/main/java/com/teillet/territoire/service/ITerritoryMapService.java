@@ -1,7 +1,27 @@
 package com.teillet.territoire.service;
 
+import com.teillet.territoire.record.CachedExport;
+import com.teillet.territoire.record.MapExportKey;
+
+import java.io.OutputStream;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ITerritoryMapService {
     byte[] generatePng(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels) throws Exception;
+
+    /**
+     * Rend la carte bande par bande et écrit le PNG au fil de l'eau : la mémoire utilisée ne dépend pas du dpi ni du format papier.
+     * @return faux si le fond de carte est incomplet (tuiles restées grises à l'échéance)
+     */
+    boolean writePng(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels, OutputStream out) throws Exception;
+
+    /**
+     * Export déjà rendu et complet pour la version courante des données, avec son ETag fort.
+     * Vide si l'export doit être rendu : la réponse ne porte alors pas d'ETag, son fond pouvant être dégradé.
+     */
+    Optional<CachedExport> cachedExport(MapExportKey key);
+
+    /** Comme {@link #writePng}, et dépose le PNG dans le cache d'export s'il est complet */
+    void writeCachedPng(MapExportKey key, OutputStream out) throws Exception;
 }
@@ -4,37 +4,77 @@ import com.teillet.territoire.dto.AverageAssignmentDurationDto;
 import com.teillet.territoire.dto.TerritoryDistributionByCityDto;
 import com.teillet.territoire.dto.TerritoryDto;
 import com.teillet.territoire.dto.UpdateTerritoryDto;
+import com.teillet.territoire.enums.HullDetail;
 import com.teillet.territoire.enums.TerritoryStatus;
 import com.teillet.territoire.model.Territory;
 import jakarta.transaction.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ITerritoryService {
 	List<Territory> getAllTerritories();
 
+	/** Écrit tous les territoires en FeatureCollection GeoJSON, en flux depuis un curseur base de données */
+	@Transactional
+	void writeTerritoriesGeoJson(OutputStream out, HullDetail detail) throws IOException;
+
+	/** Idem au format binaire TWKB (cf. TwkbFeatureStreamWriter) */
+	@Transactional
+	void writeTerritoriesTwkb(OutputStream out, HullDetail detail) throws IOException;
+
 	List<TerritoryDto> getAllTerritoryDtos();
 
+	/** Tous les territoires au format binaire : attributs du DTO, enveloppe et pâtés en TWKB */
+	@Transactional
+	void writeTerritoryDtosTwkb(OutputStream out, HullDetail detail) throws IOException;
+
 	@Transactional
 	Territory saveTerritory(Territory territory);
 
 	@Transactional
 	void updateTerritoryStatus(Territory territory, TerritoryStatus newStatus);
 
+	/** Rend disponibles les territoires en attente depuis plus de 4 mois ; renvoie le nombre de territoires modifiés */
+	@Transactional
+	int releasePendingTerritories();
+
+	/** Passe en retard, en une requête, les territoires dont une attribution en cours est échue */
 	@Transactional
-	void releasePendingTerritories();
+	int markOverdueTerritoriesLate();
 
 	Territory getTerritory(UUID id);
 
-	TerritoryDto getTerritoryDto(UUID id) throws IOException;
+	TerritoryDto getTerritoryDto(UUID id, HullDetail detail) throws IOException;
+
+	@Transactional
+	void writeTerritoryDtoTwkb(UUID id, HullDetail detail, OutputStream out) throws IOException;
 
 	@Transactional
 	void updateConcaveHull(UUID territoryId);
 
+	/** Recalcule le résumé des attributions (dernier retour, attribution en cours) des territoires donnés */
+	@Transactional
+	void refreshAssignmentSummaries(Collection<UUID> territoryIds);
+
+	/** Idem pour les territoires attribués dans le cadre de cette campagne */
+	@Transactional
+	void refreshAssignmentSummariesOfCampaign(UUID campaignId);
+
+	@Transactional
+	void refreshAllAssignmentSummaries();
+
+	@Transactional
+	void addBlockToConcaveHull(UUID territoryId, UUID blockId);
+
+	@Transactional
+	void removeBlockFromConcaveHull(UUID territoryId, UUID blockId);
+
 	@Transactional
 	TerritoryDto updateTerritory(UUID id, UpdateTerritoryDto updateDto) throws IOException;
 
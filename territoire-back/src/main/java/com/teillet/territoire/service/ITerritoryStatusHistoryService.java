@@ -1,9 +1,14 @@
 package com.teillet.territoire.service;
 
 import com.teillet.territoire.dto.TerritoryStatusHistoryDto;
+import jakarta.transaction.Transactional;
 
 import java.util.List;
 
 public interface ITerritoryStatusHistoryService {
+	/** Enregistre la répartition des statuts du jour ; sans effet si elle l'est déjà */
+	@Transactional
+	void recordDailyStatistics();
+
 	List<TerritoryStatusHistoryDto> getHistoryStatus();
 }
@@ -0,0 +1,9 @@
+package com.teillet.territoire.service;
+
+public interface ITerritoryStatusTransitionService {
+	/**
+	 * Traitement de nuit : territoires échus passés en retard, territoires en attente rendus disponibles,
+	 * puis statistiques du jour, dans une seule transaction et sur une seule instance à la fois.
+	 */
+	void runNightlyTransitions();
+}
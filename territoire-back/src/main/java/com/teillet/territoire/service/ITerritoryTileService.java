@@ -0,0 +1,14 @@
+package com.teillet.territoire.service;
+
+public interface ITerritoryTileService {
+	/**
+	 * Tuile vectorielle MVT des territoires (z/x/y, grille Web Mercator), servie depuis le cache tant que les données n'ont pas changé.
+	 * @return le contenu protobuf de la tuile, vide si aucun territoire ne l'intersecte
+	 */
+	byte[] getTile(int z, int x, int y);
+
+	/**
+	 * ETag de la tuile : change dès qu'une enveloppe ou un attribut de territoire change.
+	 */
+	String getTileEtag(int z, int x, int y);
+}
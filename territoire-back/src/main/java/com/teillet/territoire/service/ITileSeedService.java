@@ -0,0 +1,15 @@
+package com.teillet.territoire.service;
+
+import java.util.List;
+
+public interface ITileSeedService {
+    /**
+     * Lance en arrière-plan le téléchargement vers la pyramide locale de toutes les tuiles couvrant l'emprise des
+     * territoires aux zooms demandés ; les tuiles déjà présentes sont conservées (reprise possible).
+     *
+     * @return nombre de tuiles couvertes par la pré-génération
+     */
+    int startSeed(List<Integer> zooms);
+
+    boolean isRunning();
+}
@@ -15,7 +15,6 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -56,7 +55,9 @@ public class AssignmentService implements IAssignmentService {
 				.build();
 
 		territoryService.updateTerritoryStatus(territory, TerritoryStatus.ASSIGNED);
-		return AssignmentMapper.toDto(assignmentRepository.save(assignment));
+		Assignment saved = assignmentRepository.save(assignment);
+		territoryService.refreshAssignmentSummaries(List.of(territoryId));
+		return AssignmentMapper.toDto(saved);
 	}
 
 	@Transactional
@@ -68,6 +69,7 @@ public class AssignmentService implements IAssignmentService {
 		assignment.setReturnDate(LocalDate.now());
 		assignmentRepository.save(assignment);
 		territoryService.updateTerritoryStatus(assignment.getTerritory(), TerritoryStatus.PENDING);
+		territoryService.refreshAssignmentSummaries(List.of(territoryId));
 		Assignment resultAssignment = getAssignment(assignment.getId());
 		return AssignmentMapper.toDto(resultAssignment);
 	}
@@ -77,17 +79,11 @@ public class AssignmentService implements IAssignmentService {
 				.orElseThrow(() -> new EntityNotFoundException("Aucune assignation active trouvée pour ce territoire"));
 	}
 
-	@Scheduled(cron = "0 0 0 * * *")
+	@Transactional
 	@Override
-	public void checkOverdueAssignments() {
-		List<Assignment> overdueAssignments = assignmentRepository.findByDueDateBeforeAndReturnDateIsNull(LocalDate.now());
-		for (Assignment assignment : overdueAssignments) {
-			log.info("Territoire {} est en retard", assignment.getTerritory().getName());
-
-			Territory territory = assignment.getTerritory();
-			territory.setStatus(TerritoryStatus.LATE);
-			territoryService.saveTerritory(territory);
-		}
+	public int checkOverdueAssignments() {
+		// exécution planifiée par TerritoryStatusTransitionService ; appel direct conservé pour la vérification manuelle
+		return territoryService.markOverdueTerritoriesLate();
 	}
 
 	@Override
@@ -112,12 +108,14 @@ public class AssignmentService implements IAssignmentService {
 		return assignmentDtos;
 	}
 
+	@Transactional
 	@Override
 	public AssignmentDto extendTerritory(UUID territoryId) {
 		// Default extension is 4 months
 		return extendTerritory(territoryId, LocalDate.now().plusMonths(4));
 	}
 
+	@Transactional
 	@Override
 	public AssignmentDto extendTerritory(UUID territoryId, LocalDate dueDate) {
 		Assignment assignment = findAssignmentRunning(territoryId);
@@ -125,6 +123,7 @@ public class AssignmentService implements IAssignmentService {
 		// Instead of creating a new assignment, update the due date of the existing one
 		assignment.setDueDate(dueDate);
 		Assignment result = assignmentRepository.save(assignment);
+		territoryService.refreshAssignmentSummaries(List.of(territoryId));
 
 		return AssignmentMapper.toDto(result);
 	}
@@ -143,6 +142,7 @@ public class AssignmentService implements IAssignmentService {
 
 		// Supprimer l'assignation
 		assignmentRepository.delete(assignment);
+		territoryService.refreshAssignmentSummaries(List.of(territoryId));
 
 		log.info("Assignation du territoire {} annulée et supprimée", territoryId);
 
@@ -151,25 +151,12 @@ public class AssignmentService implements IAssignmentService {
 
 	@Override
 	@Transactional
-	public void createCampaignAssignments(Campaign campaign, List<Territory> usedTerritories) {
-		log.info("Création des assignations pour {} territoires utilisés dans la campagne '{}'", 
-				usedTerritories.size(), campaign.getName());
-
-		for (Territory territory : usedTerritories) {
-			log.info("Création d'une assignation pour le territoire '{}' dans la campagne '{}'", 
-					territory.getName(), campaign.getName());
-
-			Assignment assignment = Assignment.builder()
-					.territory(territory)
-					.campaign(campaign)
-					.dueDate(campaign.getEndDate())
-					.assignmentDate(campaign.getStartDate())
-					.returnDate(campaign.getEndDate())
-					.build();
-
-			assignmentRepository.save(assignment);
-			log.info("Assignation créée avec succès pour le territoire '{}'", territory.getName());
-		}
+	public int createCampaignAssignments(Campaign campaign) {
+		// territoires de la campagne moins les restants, insérés en une seule requête (clés générées par la base)
+		int created = assignmentRepository.insertCampaignAssignments(campaign.getId());
+		territoryService.refreshAssignmentSummariesOfCampaign(campaign.getId());
+		log.info("{} assignations créées pour les territoires utilisés dans la campagne '{}'", created, campaign.getName());
+		return created;
 	}
 
 	@Override
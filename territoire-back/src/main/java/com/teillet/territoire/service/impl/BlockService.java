@@ -1,9 +1,11 @@
 package com.teillet.territoire.service.impl;
 
 import com.teillet.territoire.dto.BlockDto;
+import com.teillet.territoire.dto.BlockFeatureCollectionDto;
 import com.teillet.territoire.model.Block;
 import com.teillet.territoire.model.Territory;
 import com.teillet.territoire.repository.BlockRepository;
+import com.teillet.territoire.repository.TerritoryRepository;
 import com.teillet.territoire.service.IBlockService;
 import com.teillet.territoire.service.ITerritoryService;
 import com.teillet.territoire.utils.GeoJsonUtils;
@@ -11,16 +13,23 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKBWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BlockService implements IBlockService {
+	private static final int BATCH_SIZE = 100;
+
 	private final ITerritoryService territoryService;
 	private final BlockRepository blockRepository;
+	private final TerritoryRepository territoryRepository;
+	private final JdbcTemplate jdbcTemplate;
 
 	@Transactional
 	@Override
@@ -42,7 +51,7 @@ public class BlockService implements IBlockService {
 		Block save = blockRepository.save(block);
 
 		log.info("Ajout du pâté au territoire");
-		territoryService.updateConcaveHull(territory.getId());
+		territoryService.addBlockToConcaveHull(territory.getId(), save.getId());
 
 		log.info("Fin : Ajout d'un pâté au territoire");
 		return save;
@@ -50,8 +59,38 @@ public class BlockService implements IBlockService {
 
 	@Transactional
 	@Override
-	public void removeBlockTerritory(UUID territoryId, UUID blockId){
-		blockRepository.deleteByIdAndTerritory_Id(blockId, territoryId);
+	public String addBlocksToTerritory(UUID territoryId, BlockFeatureCollectionDto blocks) {
+		log.info("Début : Ajout de pâtés en lot au territoire {}", territoryId);
+		if (!territoryRepository.existsById(territoryId)) {
+			throw new RuntimeException("Territoire non trouvé");
+		}
+
+		log.info("Conversion et validation des pâtés");
+		List<Polygon> polygons = GeoJsonUtils.convertFeatureCollectionToPolygons(blocks);
+
+		log.info("Insertion de {} pâtés", polygons.size());
+		WKBWriter wkbWriter = new WKBWriter();
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO block (id, block, territory_id) VALUES (?, ST_GeomFromWKB(?, 4326), ?)",
+				polygons,
+				BATCH_SIZE,
+				(ps, polygon) -> {
+					ps.setObject(1, UUID.randomUUID());
+					ps.setBytes(2, wkbWriter.write(polygon));
+					ps.setObject(3, territoryId);
+				});
+
+		log.info("Recalcul de l'enveloppe du territoire");
 		territoryService.updateConcaveHull(territoryId);
+
+		log.info("Fin : Ajout de pâtés en lot au territoire {}", territoryId);
+		return territoryRepository.findConcaveHullGeoJson(territoryId);
+	}
+
+	@Transactional
+	@Override
+	public void removeBlockTerritory(UUID territoryId, UUID blockId){
+		// la suppression du pâté est faite par la même requête que la mise à jour de l'enveloppe
+		territoryService.removeBlockFromConcaveHull(territoryId, blockId);
 	}
 }
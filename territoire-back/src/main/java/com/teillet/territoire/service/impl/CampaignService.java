@@ -1,7 +1,10 @@
 package com.teillet.territoire.service.impl;
 
+import com.teillet.territoire.cache.DataVersionStore;
 import com.teillet.territoire.dto.CampaignDto;
 import com.teillet.territoire.dto.CampaignStatisticsDto;
+import com.teillet.territoire.dto.CampaignSummaryDto;
+import com.teillet.territoire.dto.RemainingTerritoriesPatchDto;
 import com.teillet.territoire.dto.SimplifiedTerritoryDto;
 import com.teillet.territoire.enums.TerritoryType;
 import com.teillet.territoire.mapper.CampaignMapper;
@@ -9,19 +12,27 @@ import com.teillet.territoire.model.Campaign;
 import com.teillet.territoire.model.Territory;
 import com.teillet.territoire.repository.CampaignRepository;
 import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.repository.projection.CampaignStatisticsRow;
+import com.teillet.territoire.repository.projection.CampaignSummaryRow;
+import com.teillet.territoire.repository.projection.CampaignTerritoryRow;
 import com.teillet.territoire.service.IAssignmentService;
 import com.teillet.territoire.service.ICampaignService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,24 +43,53 @@ public class CampaignService implements ICampaignService {
     private final TerritoryRepository territoryRepository;
     private final IAssignmentService assignmentService;
 
+    private final DataVersionStore dataVersionStore;
+
+    // Statistiques par campagne, associées à la version partagée des campagnes (DataVersionStore.CAMPAIGNS) :
+    // une modification sur n'importe quelle instance les rend obsolètes partout
+    private final Map<UUID, CachedStatistics> statisticsCache = new ConcurrentHashMap<>();
+
     public CampaignService(
         CampaignRepository campaignRepository,
         TerritoryRepository territoryRepository,
-        @Lazy IAssignmentService assignmentService
+        @Lazy IAssignmentService assignmentService,
+        DataVersionStore dataVersionStore
     ) {
         this.campaignRepository = campaignRepository;
         this.territoryRepository = territoryRepository;
         this.assignmentService = assignmentService;
+        this.dataVersionStore = dataVersionStore;
     }
 
     @Override
-    public List<CampaignDto> getAllCampaigns() {
-        log.info("Récupération de toutes les campagnes");
-        List<Campaign> campaigns = campaignRepository.findAllByOrderByStartDateDesc();
-        log.info("{} campagnes trouvées", campaigns.size());
-        return campaigns.stream()
-                .map(CampaignMapper::toDto)
-                .collect(Collectors.toList());
+    public Page<CampaignSummaryDto> getCampaignSummaries(Pageable pageable) {
+        log.info("Récupération des campagnes (page {}, taille {})", pageable.getPageNumber(), pageable.getPageSize());
+        Page<CampaignSummaryDto> campaigns = campaignRepository.findSummaries(pageable).map(CampaignMapper::toSummaryDto);
+        log.info("{} campagnes trouvées sur {}", campaigns.getNumberOfElements(), campaigns.getTotalElements());
+        return campaigns;
+    }
+
+    @Override
+    public List<CampaignSummaryDto> getClosedCampaignsWithRemainingTerritories() {
+        log.info("Récupération des campagnes clôturées avec territoires restants");
+        List<CampaignSummaryDto> campaigns = campaignRepository.findClosedSummariesWithRemainingTerritories().stream()
+                .map(CampaignMapper::toSummaryDto)
+                .toList();
+        log.info("{} campagnes clôturées avec territoires restants trouvées", campaigns.size());
+        return campaigns;
+    }
+
+    @Override
+    public Map<UUID, CampaignDto> getCampaignDtosById() {
+        Map<UUID, List<CampaignTerritoryRow>> territories = campaignRepository.findAllCampaignTerritories().stream()
+                .collect(Collectors.groupingBy(CampaignTerritoryRow::getCampaignId));
+        Map<UUID, List<CampaignTerritoryRow>> remaining = campaignRepository.findAllCampaignRemainingTerritories().stream()
+                .collect(Collectors.groupingBy(CampaignTerritoryRow::getCampaignId));
+        Map<UUID, CampaignDto> campaigns = new HashMap<>();
+        for (CampaignSummaryRow row : campaignRepository.findAllSummaries()) {
+            campaigns.put(row.getId(), CampaignMapper.toDto(row, territories.get(row.getId()), remaining.get(row.getId())));
+        }
+        return campaigns;
     }
 
     @Override
@@ -136,7 +176,7 @@ public class CampaignService implements ICampaignService {
         log.info("Récupération de tous les territoires disponibles");
         List<Territory> availableTerritories = territoryRepository.findAll();
         log.info("{} territoires trouvés pour la campagne", availableTerritories.size());
-        campaign.setTerritories(new ArrayList<>(availableTerritories));
+        campaign.setTerritories(new HashSet<>(availableTerritories));
 
         Campaign savedCampaign = campaignRepository.save(campaign);
         log.info("Campagne '{}' créée avec succès (ID: {})", savedCampaign.getName(), savedCampaign.getId());
@@ -149,23 +189,68 @@ public class CampaignService implements ICampaignService {
         log.info("Mise à jour des territoires restants pour la campagne avec l'ID: {}", id);
         Campaign campaign = getCampaignEntityById(id);
 
-        // Convert SimplifiedTerritoryDto to Territory entities
-        log.info("Conversion de {} DTOs en entités Territory", remainingTerritoriesDto.size());
-        List<Territory> remainingTerritories = new ArrayList<>();
-        for (SimplifiedTerritoryDto dto : remainingTerritoriesDto) {
-            Territory territory = territoryRepository.findById(dto.getTerritoryId())
-                    .orElseThrow(() -> {
-                        log.error("Territoire non trouvé avec l'ID: {}", dto.getTerritoryId());
-                        return new RuntimeException("Territoire non trouvé avec l'ID: " + dto.getTerritoryId());
-                    });
-            remainingTerritories.add(territory);
+        Set<UUID> wanted = remainingTerritoriesDto.stream()
+                .map(SimplifiedTerritoryDto::getTerritoryId)
+                .collect(Collectors.toSet());
+        Set<UUID> current = campaign.getRemainingTerritories().stream()
+                .map(Territory::getId)
+                .collect(Collectors.toSet());
+
+        // Seule la différence avec l'état actuel est écrite
+        Set<UUID> added = new HashSet<>(wanted);
+        added.removeAll(current);
+        Set<UUID> removed = new HashSet<>(current);
+        removed.removeAll(wanted);
+
+        applyRemainingTerritoriesDiff(campaign, added, removed);
+        return CampaignMapper.toDto(getCampaignEntityById(id));
+    }
+
+    @Override
+    @Transactional
+    public void patchRemainingTerritories(UUID id, RemainingTerritoriesPatchDto patch) {
+        log.info("Modification des territoires restants pour la campagne avec l'ID: {}", id);
+        Campaign campaign = getCampaignEntityById(id);
+
+        Set<UUID> added = patch.getAdded() == null ? new HashSet<>() : new HashSet<>(patch.getAdded());
+        Set<UUID> removed = patch.getRemoved() == null ? new HashSet<>() : new HashSet<>(patch.getRemoved());
+        if (added.removeAll(removed)) {
+            throw new IllegalArgumentException("Un territoire ne peut pas être à la fois ajouté et retiré");
         }
 
-        campaign.setRemainingTerritories(remainingTerritories);
+        applyRemainingTerritoriesDiff(campaign, added, removed);
+    }
 
-        Campaign updatedCampaign = campaignRepository.save(campaign);
-        log.info("{} territoires restants enregistrés pour la campagne '{}'", remainingTerritories.size(), updatedCampaign.getName());
-        return CampaignMapper.toDto(updatedCampaign);
+    /**
+     * Applique la différence par un INSERT et un DELETE ciblés sur campaign_remaining_territory, sans charger
+     * ni réécrire les collections de la campagne. L'INSERT ne retient que les territoires de la campagne :
+     * un nombre de lignes inférieur au nombre d'ajouts signale un territoire inconnu ou hors campagne,
+     * et l'exception annule la transaction.
+     */
+    private void applyRemainingTerritoriesDiff(Campaign campaign, Set<UUID> added, Set<UUID> removed) {
+        UUID id = campaign.getId();
+
+        int inserted = 0;
+        if (!added.isEmpty()) {
+            inserted = campaignRepository.addRemainingTerritories(id, added);
+            if (inserted < added.size()) {
+                Set<UUID> found = territoryRepository.findAllById(added).stream()
+                        .map(Territory::getId)
+                        .collect(Collectors.toSet());
+                UUID missing = added.stream().filter(territoryId -> !found.contains(territoryId)).findFirst().orElse(null);
+                if (missing != null) {
+                    log.error("Territoire non trouvé avec l'ID: {}", missing);
+                    throw new IllegalArgumentException("Territoire non trouvé avec l'ID: " + missing);
+                }
+                log.error("{} territoire(s) ajouté(s) hors de la campagne '{}'", added.size() - inserted, campaign.getName());
+                throw new IllegalArgumentException("Certains territoires ajoutés ne font pas partie de la campagne");
+            }
+        }
+        int deleted = removed.isEmpty() ? 0 : campaignRepository.removeRemainingTerritories(id, removed);
+        log.info("Territoires restants de la campagne '{}' : {} ajoutés, {} retirés", campaign.getName(), inserted, deleted);
+        if (inserted > 0 || deleted > 0) {
+            invalidateStatistics();
+        }
     }
 
     @Override
@@ -183,19 +268,12 @@ public class CampaignService implements ICampaignService {
         campaign.setEndDate(LocalDate.now());
         campaign.setClosed(true);
 
-        // Create assignments for territories that were used during the campaign
-        log.info("Calcul des territoires utilisés pendant la campagne");
-        List<Territory> usedTerritories = campaign.getTerritories().stream()
-                .filter(territory -> !campaign.getRemainingTerritories().contains(territory))
-                .toList();
-
-        log.info("{} territoires ont été utilisés pendant la campagne '{}'", usedTerritories.size(), campaign.getName());
-
-        // Save the campaign first to ensure it has an ID
+        // Save the campaign first: the end date is read by the assignment insert
         Campaign closedCampaign = campaignRepository.save(campaign);
 
-        // Create assignments for used territories
-        assignmentService.createCampaignAssignments(closedCampaign, usedTerritories);
+        // Create assignments for territories that were used during the campaign (territories minus remaining ones, in SQL)
+        int used = assignmentService.createCampaignAssignments(closedCampaign);
+        log.info("{} territoires ont été utilisés pendant la campagne '{}'", used, campaign.getName());
 
         log.info("Campagne '{}' clôturée avec succès", closedCampaign.getName());
         return CampaignMapper.toDto(closedCampaign);
@@ -213,6 +291,8 @@ public class CampaignService implements ICampaignService {
         }
 
         campaignRepository.delete(campaign);
+        statisticsCache.remove(id);
+        invalidateStatistics();
         log.info("Campagne '{}' supprimée avec succès", campaign.getName());
     }
 
@@ -221,7 +301,7 @@ public class CampaignService implements ICampaignService {
         log.info("Récupération des territoires restants de la campagne avec l'ID: {}", campaignId);
         Campaign campaign = getCampaignEntityById(campaignId);
 
-        List<Territory> remainingTerritories = campaign.getRemainingTerritories();
+        Set<Territory> remainingTerritories = campaign.getRemainingTerritories();
         log.info("{} territoires restants trouvés pour la campagne '{}'", remainingTerritories.size(), campaign.getName());
 
         return remainingTerritories.stream()
@@ -251,15 +331,15 @@ public class CampaignService implements ICampaignService {
         log.info("Campagne précédente trouvée: '{}'", previousCampaign.getName());
 
         // Récupération des territoires restants
-        List<Territory> remainingTerritories = previousCampaign.getRemainingTerritories();
+        Set<Territory> remainingTerritories = previousCampaign.getRemainingTerritories();
         log.info("{} territoires restants trouvés dans la campagne précédente", remainingTerritories.size());
 
         // Create campaign entity
         Campaign campaign = createCampaignEntity(campaignDto, startDate, endDate);
 
         // Ajout des territoires restants de la campagne précédente
-        campaign.setTerritories(new ArrayList<>(remainingTerritories));
-        campaign.setRemainingTerritories(new ArrayList<>(remainingTerritories));
+        campaign.setTerritories(new HashSet<>(remainingTerritories));
+        campaign.setRemainingTerritories(new HashSet<>(remainingTerritories));
 
         Campaign savedCampaign = campaignRepository.save(campaign);
         log.info("Campagne '{}' créée avec succès avec {} territoires de la campagne précédente (ID: {})",
@@ -270,97 +350,85 @@ public class CampaignService implements ICampaignService {
     @Override
     @Transactional
     public void deleteTerrritoryFromAllCampaign(Territory territory) {
-        log.info("Suppression du territoire {} des campagnes", territory.getId());
-
-        // Remove from territories list
-        List<Campaign> campaignsWithTerritory = campaignRepository.findByTerritoriesContaining(territory);
-        for (Campaign campaign : campaignsWithTerritory) {
-            campaign.getTerritories().remove(territory);
-            campaignRepository.save(campaign);
-        }
-
-        // Remove from remainingTerritories list
-        List<Campaign> campaignsWithRemainingTerritory = campaignRepository.findByRemainingTerritoriesContaining(territory);
-        for (Campaign campaign : campaignsWithRemainingTerritory) {
-            campaign.getRemainingTerritories().remove(territory);
-            campaignRepository.save(campaign);
-        }
+        deleteTerrritoryFromAllCampaign(territory.getId());
     }
 
     @Override
     @Transactional
     public void deleteTerrritoryFromAllCampaign(UUID territoryId) {
-        Territory territory = territoryRepository.findById(territoryId)
-                .orElseThrow(() -> new RuntimeException("Territoire non trouvé"));
-        deleteTerrritoryFromAllCampaign(territory);
+        log.info("Suppression du territoire {} des campagnes", territoryId);
+        int territories = campaignRepository.deleteTerritoryLinks(territoryId);
+        int remaining = campaignRepository.deleteRemainingTerritoryLinks(territoryId);
+        log.info("Territoire {} retiré de {} campagnes ({} comme territoire restant)", territoryId, territories, remaining);
+        invalidateStatistics();
     }
 
     @Override
     public CampaignStatisticsDto getCampaignStatistics(UUID campaignId) {
         log.info("Récupération des statistiques pour la campagne avec l'ID: {}", campaignId);
-        Campaign campaign = getCampaignEntityById(campaignId);
-
-        // Get all territories in the campaign
-        List<Territory> allTerritories = campaign.getTerritories();
-
-        // Get remaining territories (available)
-        List<Territory> availableTerritories = campaign.getRemainingTerritories();
-
-        // Calculate used territories (all - available)
-        List<Territory> usedTerritories = allTerritories.stream()
-                .filter(territory -> !availableTerritories.contains(territory))
-                .toList();
+        // version lue AVANT le calcul : une modification concurrente rend simplement l'entrée obsolète
+        long version = dataVersionStore.read(DataVersionStore.CAMPAIGNS);
+        CachedStatistics cached = statisticsCache.get(campaignId);
+        if (cached != null && cached.version() == version) {
+            log.debug("Statistiques de la campagne {} servies depuis le cache", campaignId);
+            return cached.statistics();
+        }
 
-        // Initialize maps for territory counts by type
-        Map<TerritoryType, Integer> totalTerritoriesByType = new HashMap<>();
-        Map<TerritoryType, Integer> usedTerritoriesByType = new HashMap<>();
-        Map<TerritoryType, Integer> availableTerritoriesByType = new HashMap<>();
+        Campaign campaign = getCampaignEntityById(campaignId);
 
-        // Initialize counts for each territory type
+        Map<TerritoryType, Integer> totalTerritoriesByType = new EnumMap<>(TerritoryType.class);
+        Map<TerritoryType, Integer> usedTerritoriesByType = new EnumMap<>(TerritoryType.class);
+        Map<TerritoryType, Integer> availableTerritoriesByType = new EnumMap<>(TerritoryType.class);
         for (TerritoryType type : TerritoryType.values()) {
             totalTerritoriesByType.put(type, 0);
             usedTerritoriesByType.put(type, 0);
             availableTerritoriesByType.put(type, 0);
         }
 
-        // Count territories by type
-        for (Territory territory : allTerritories) {
-            TerritoryType type = territory.getType();
-            if (type != null) {
-                totalTerritoriesByType.put(type, totalTerritoriesByType.get(type) + 1);
+        // Une ligne par type : les totaux incluent les territoires sans type, absents des répartitions
+        int total = 0;
+        int used = 0;
+        int available = 0;
+        for (CampaignStatisticsRow row : campaignRepository.countTerritoriesByType(campaignId)) {
+            total += row.getTotal().intValue();
+            used += row.getUsed().intValue();
+            available += row.getAvailable().intValue();
+            if (row.getType() != null) {
+                TerritoryType type = TerritoryType.valueOf(row.getType());
+                totalTerritoriesByType.put(type, row.getTotal().intValue());
+                usedTerritoriesByType.put(type, row.getUsed().intValue());
+                availableTerritoriesByType.put(type, row.getAvailable().intValue());
             }
         }
 
-        for (Territory territory : usedTerritories) {
-            TerritoryType type = territory.getType();
-            if (type != null) {
-                usedTerritoriesByType.put(type, usedTerritoriesByType.get(type) + 1);
-            }
-        }
-
-        for (Territory territory : availableTerritories) {
-            TerritoryType type = territory.getType();
-            if (type != null) {
-                availableTerritoriesByType.put(type, availableTerritoriesByType.get(type) + 1);
-            }
-        }
-
-        // Build and return the statistics DTO
         CampaignStatisticsDto statisticsDto = CampaignStatisticsDto.builder()
                 .campaignId(campaign.getId())
                 .campaignName(campaign.getName())
-                .totalTerritories(allTerritories.size())
-                .usedTerritories(usedTerritories.size())
-                .availableTerritories(availableTerritories.size())
+                .totalTerritories(total)
+                .usedTerritories(used)
+                .availableTerritories(available)
                 .totalTerritoriesByType(totalTerritoriesByType)
                 .usedTerritoriesByType(usedTerritoriesByType)
                 .availableTerritoriesByType(availableTerritoriesByType)
                 .build();
 
         log.info("Statistiques calculées pour la campagne '{}': {} territoires au total, {} utilisés, {} disponibles",
-                campaign.getName(), statisticsDto.getTotalTerritories(), statisticsDto.getUsedTerritories(), 
+                campaign.getName(), statisticsDto.getTotalTerritories(), statisticsDto.getUsedTerritories(),
                 statisticsDto.getAvailableTerritories());
 
+        statisticsCache.put(campaignId, new CachedStatistics(version, statisticsDto));
         return statisticsDto;
     }
+
+    @Override
+    public void evictAllCampaignStatistics() {
+        invalidateStatistics();
+    }
+
+    /** Rend obsolètes les statistiques en cache de toutes les campagnes, sur toutes les instances */
+    private void invalidateStatistics() {
+        dataVersionStore.increment(DataVersionStore.CAMPAIGNS);
+    }
+
+    private record CachedStatistics(long version, CampaignStatisticsDto statistics) {}
 }
@@ -2,6 +2,7 @@ package com.teillet.territoire.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teillet.territoire.cache.MapDataVersion;
 import com.teillet.territoire.dto.AddCityDto;
 import com.teillet.territoire.model.City;
 import com.teillet.territoire.repository.CityRepository;
@@ -26,6 +27,7 @@ public class CityService implements ICityService {
 	private final GeometryFactory pointGeometryFactory = new GeometryFactory(new PrecisionModel(), 4326); // WGS 84
 	private final RestTemplate restTemplate;
 	private  final ObjectMapper objectMapper;
+	private final MapDataVersion mapDataVersion;
 
 	@Override
 	public City getCity(UUID cityId) {
@@ -97,7 +99,9 @@ public class CityService implements ICityService {
 		} else {
 			city.setColorHex(null);
 		}
-		return cityRepository.save(city);
+		City saved = cityRepository.save(city);
+		mapDataVersion.bump();
+		return saved;
 	}
 
 }
@@ -11,6 +11,7 @@ import com.teillet.territoire.repository.AssignmentRepository;
 import com.teillet.territoire.repository.CityRepository;
 import com.teillet.territoire.repository.TerritoryRepository;
 import com.teillet.territoire.service.IExcelService;
+import com.teillet.territoire.service.ITerritoryService;
 import com.teillet.territoire.utils.SchoolYearUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +38,7 @@ public class ExcelService implements IExcelService {
 	private final TerritoryRepository territoryRepository;
 	private final AssignmentRepository assignmentRepository;
 	private final CityRepository cityRepository;
+	private final ITerritoryService territoryService;
 
 	@Override
 	public void generateExcel(List<CityExportDto> cities, ByteArrayOutputStream outputStream, int startYear) throws IOException {
@@ -69,6 +71,7 @@ public class ExcelService implements IExcelService {
 			Sheet sheet = workbook.getSheetAt(0);
 
 			extractTerritories(sheet);
+			territoryService.refreshAllAssignmentSummaries();
 		} catch (Exception e) {
 			log.error(e.getMessage(), e);
 			throw e;
@@ -0,0 +1,226 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.record.AtlasRenderPool;
+import com.teillet.territoire.record.TileImage;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.repository.projection.AddressNotToDoRow;
+import com.teillet.territoire.repository.projection.TerritoryCardRow;
+import com.teillet.territoire.service.ITerritoryAtlasService;
+import com.teillet.territoire.utils.MapMath;
+import com.teillet.territoire.utils.RenderUtils;
+import com.teillet.territoire.utils.StreamingPngWriter;
+import com.teillet.territoire.utils.WmtsClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.springframework.stereotype.Service;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.teillet.territoire.utils.Utils.parseColor;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TerritoryAtlasService implements ITerritoryAtlasService {
+
+    /** Les tailles (polices, marges) sont exprimées pour 150 dpi puis mises à l'échelle */
+    private static final double BASE_DPI = 150.0;
+    private static final int MAX_ADDRESS_LINES = 12;
+
+    private static final Color DEFAULT_FILL = new Color(120, 120, 220, 110);
+    private static final Color BLOCK_OUTLINE = new Color(45, 45, 45, 160);
+    private static final Color FRAME = new Color(80, 80, 80);
+
+    private final TerritoryRepository territoryRepo;
+    private final WmtsClient wmtsClient;
+    /** Pool partagé par tous les exports d'atlas (cf. MapRenderConfig) ; les fiches partagent le cache de tuiles */
+    private final AtlasRenderPool atlasRenderPool;
+
+    @Override
+    public void writeAtlasZip(UUID cityId, String paper, String orientation, int dpi, int zoom, OutputStream out) throws Exception {
+        List<TerritoryCardRow> cards = territoryRepo.findAtlasCards(cityId);
+        Map<UUID, List<AddressNotToDoRow>> addresses = territoryRepo.findAtlasAddressesNotToDo(cityId).stream()
+                .collect(Collectors.groupingBy(AddressNotToDoRow::getTerritoryId));
+        Dimension size = RenderUtils.paperToPixels(paper, orientation, dpi);
+        int concurrency = atlasRenderPool.executor().getMaximumPoolSize();
+        log.info("Atlas : {} fiches {}x{} px sur {} threads partagés", cards.size(), size.width, size.height, concurrency);
+
+        // fiches rendues en avance sur l'écriture, dans une fenêtre bornée : mémoire proportionnelle à la concurrence
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        Set<String> entryNames = new HashSet<>();
+        int submitted = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setLevel(Deflater.NO_COMPRESSION); // PNG déjà compressés
+            for (TerritoryCardRow card : cards) {
+                while (submitted < cards.size() && pending.size() < concurrency * 2) {
+                    TerritoryCardRow next = cards.get(submitted++);
+                    List<AddressNotToDoRow> nextAddresses = addresses.getOrDefault(next.getId(), List.of());
+                    pending.add(atlasRenderPool.executor().submit(() -> renderCard(next, nextAddresses, size, dpi, zoom)));
+                }
+                byte[] png = await(pending.poll());
+                zip.putNextEntry(new ZipEntry(entryName(card, entryNames)));
+                zip.write(png);
+                zip.closeEntry();
+            }
+        } finally {
+            // erreur ou client déconnecté : les fiches restantes ne seront jamais écrites
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private byte[] renderCard(TerritoryCardRow card, List<AddressNotToDoRow> addresses, Dimension size, int dpi, int zoom) throws Exception {
+        double k = dpi / BASE_DPI;
+        int width = size.width, height = size.height;
+        int margin = (int) Math.round(40 * k);
+        int headerH = (int) Math.round(70 * k);
+        int lineH = (int) Math.round(22 * k);
+        int listLines = addresses.isEmpty() ? 0 : Math.min(addresses.size(), MAX_ADDRESS_LINES) + 1;
+        int listH = listLines == 0 ? 0 : listLines * lineH + margin / 2;
+        Rectangle mapRect = new Rectangle(margin, margin + headerH, width - 2 * margin, height - 2 * margin - headerH - listH);
+
+        WKBReader reader = new WKBReader();
+        Geometry hull = read(reader, card.getHullWkb(), card);
+        Geometry blocks = card.getBlocksWkb() == null ? null : read(reader, card.getBlocksWkb(), card);
+
+        // Emprise du territoire + marge, élargie au ratio du cadre de carte (pas de déformation, pas de bandes vides)
+        Envelope env = new Envelope(hull.getEnvelopeInternal());
+        if (blocks != null) env.expandToInclude(blocks.getEnvelopeInternal());
+        double pad = Math.max(env.getWidth(), env.getHeight()) * 0.08;
+        env.expandBy(pad, pad);
+        double frameRatio = (double) mapRect.width / mapRect.height;
+        if (env.getWidth() / env.getHeight() < frameRatio) {
+            double dx = (env.getHeight() * frameRatio - env.getWidth()) / 2;
+            env.expandBy(dx, 0);
+        } else {
+            double dy = (env.getWidth() / frameRatio - env.getHeight()) / 2;
+            env.expandBy(0, dy);
+        }
+
+        int z = Math.min(zoom, MapMath.optimalZoom(env.getWidth() / mapRect.width));
+        TileImage basemap = RenderUtils.cropToExtent(wmtsClient.fetchTiles3857(env, z), env);
+        double scale = mapRect.width / env.getWidth();
+        double ox = mapRect.x - env.getMinX() * scale;
+        double oy = mapRect.y + env.getMaxY() * scale;
+        Color cityColor = parseColor(card.getCityColorHex(), DEFAULT_FILL);
+
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+
+            // En-tête : nom du territoire et ville
+            g.setColor(Color.BLACK);
+            g.setFont(new Font("SansSerif", Font.BOLD, (int) Math.round(30 * k)));
+            g.drawString(nullToEmpty(card.getName()), margin, margin + (int) Math.round(34 * k));
+            g.setFont(new Font("SansSerif", Font.PLAIN, (int) Math.round(18 * k)));
+            g.drawString(nullToEmpty(card.getCityName()), margin, margin + (int) Math.round(60 * k));
+
+            // Carte : fond, pâtés, enveloppe
+            Shape previousClip = g.getClip();
+            g.clip(mapRect);
+            g.drawImage(basemap.img(), mapRect.x, mapRect.y, mapRect.width, mapRect.height, null);
+            if (blocks != null) {
+                Shape blockShape = RenderUtils.toShape(blocks, scale, ox, oy);
+                g.setColor(cityColor);
+                g.fill(blockShape);
+                g.setColor(BLOCK_OUTLINE);
+                g.setStroke(new BasicStroke((float) (1.0 * k)));
+                g.draw(blockShape);
+            }
+            g.setColor(new Color(cityColor.getRed(), cityColor.getGreen(), cityColor.getBlue()));
+            g.setStroke(new BasicStroke((float) (3.0 * k), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(RenderUtils.toShape(hull, scale, ox, oy));
+            g.setClip(previousClip);
+            g.setColor(FRAME);
+            g.setStroke(new BasicStroke((float) k));
+            g.draw(mapRect);
+
+            // Adresses à ne pas visiter
+            if (listLines > 0) {
+                int y = mapRect.y + mapRect.height + margin / 2 + lineH;
+                g.setColor(Color.BLACK);
+                g.setFont(new Font("SansSerif", Font.BOLD, (int) Math.round(15 * k)));
+                g.drawString("Adresses à ne pas visiter :", margin, y);
+                g.setFont(new Font("SansSerif", Font.PLAIN, (int) Math.round(14 * k)));
+                for (int i = 0; i < listLines - 1; i++) {
+                    y += lineH;
+                    boolean truncated = i == MAX_ADDRESS_LINES - 1 && addresses.size() > MAX_ADDRESS_LINES;
+                    String line = truncated
+                            ? "… et " + (addresses.size() - i) + " autres adresses"
+                            : "• " + formatAddress(addresses.get(i));
+                    g.drawString(line, margin, y);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (StreamingPngWriter png = new StreamingPngWriter(baos, width, height)) {
+            png.writeRows(img, height);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Geometry read(WKBReader reader, byte[] wkb, TerritoryCardRow card) {
+        try {
+            return reader.read(wkb);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Géométrie illisible pour le territoire " + card.getName(), e);
+        }
+    }
+
+    private static String formatAddress(AddressNotToDoRow a) {
+        StringBuilder sb = new StringBuilder();
+        if (a.getNumber() != null && !a.getNumber().isBlank()) sb.append(a.getNumber()).append(' ');
+        sb.append(nullToEmpty(a.getStreet()));
+        String town = (nullToEmpty(a.getZipCode()) + " " + nullToEmpty(a.getCity())).trim();
+        if (!town.isEmpty()) sb.append(", ").append(town);
+        return sb.toString();
+    }
+
+    /** Ville/territoire.png, noms nettoyés et rendus uniques dans l'archive */
+    private static String entryName(TerritoryCardRow card, Set<String> used) {
+        String base = safe(card.getCityName()) + "/" + safe(card.getName());
+        String name = base + ".png";
+        for (int i = 2; !used.add(name); i++) {
+            name = base + "-" + i + ".png";
+        }
+        return name;
+    }
+
+    private static String safe(String s) {
+        if (s == null || s.isBlank()) return "_";
+        return s.trim().replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
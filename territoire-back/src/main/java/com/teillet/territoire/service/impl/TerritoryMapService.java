@@ -1,25 +1,41 @@
 package com.teillet.territoire.service.impl;
 
+import com.teillet.territoire.cache.LabelLayoutCache;
+import com.teillet.territoire.cache.MapDataVersion;
+import com.teillet.territoire.cache.MapExportCache;
+import com.teillet.territoire.record.CachedExport;
+import com.teillet.territoire.record.MapExportKey;
+import com.teillet.territoire.record.MapRenderPool;
 import com.teillet.territoire.record.TileImage;
 import com.teillet.territoire.repository.TerritoryRepository;
 import com.teillet.territoire.repository.projection.Bbox3857;
 import com.teillet.territoire.repository.projection.TerritoryHullRow;
 import com.teillet.territoire.service.ITerritoryMapService;
+import com.teillet.territoire.utils.LabelPlacer;
+import com.teillet.territoire.utils.MapMath;
+import com.teillet.territoire.utils.LabelPlacer.PlacedLabel;
 import com.teillet.territoire.utils.RenderUtils;
+import com.teillet.territoire.utils.StreamingPngWriter;
 import com.teillet.territoire.utils.WmtsClient;
 import lombok.RequiredArgsConstructor;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKBReader;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.teillet.territoire.utils.Utils.parseColor;
 
@@ -27,123 +43,239 @@ import static com.teillet.territoire.utils.Utils.parseColor;
 @RequiredArgsConstructor
 public class TerritoryMapService implements ITerritoryMapService {
 
+    /** Hauteur d'une bande de rendu : borne la mémoire du canvas à width x STRIP_HEIGHT pixels */
+    private static final int STRIP_HEIGHT = 256;
+
+    private static final Color OUTLINE = new Color(45, 45, 45, 200);
+    private static final Color HALO = new Color(255, 255, 255, 220);
+    private static final Color DEFAULT_FILL = new Color(120, 120, 220, 110);
+    private static final Font LABEL_FONT = new Font("SansSerif", Font.PLAIN, 18);
+    private static final BasicStroke HULL_STROKE = new BasicStroke(1.4f);
+    // mesurées une fois pour toutes : la police des étiquettes ne varie pas
+    private static final FontMetrics LABEL_METRICS = fontMetrics(LABEL_FONT);
+
     private final TerritoryRepository territoryRepo;
     private final WmtsClient wmtsClient;
+    private final MapExportCache exportCache;
+    private final MapDataVersion dataVersion;
+    private final MapRenderPool mapRenderPool;
+    private final LabelLayoutCache labelLayoutCache;
+
+    @Override
+    public Optional<CachedExport> cachedExport(MapExportKey key) {
+        long version = dataVersion.current();
+        return exportCache.get(key, version).map(png -> new CachedExport(exportCache.etag(key, version), png));
+    }
+
+    @Override
+    public void writeCachedPng(MapExportKey key, OutputStream out) throws Exception {
+        // version lue AVANT le rendu : si les données changent pendant le rendu, l'entrée est simplement déjà obsolète
+        long version = dataVersion.current();
+        Optional<byte[]> cached = exportCache.get(key, version);
+        if (cached.isPresent()) {
+            out.write(cached.get());
+            return;
+        }
+
+        MapExportCache.CapturingOutputStream capture = exportCache.capture(out);
+        boolean complete = writePng(key.paper(), key.orientation(), key.dpi(), key.cityId(), key.zoom(), key.showLabels(), capture);
+        capture.flush();
+        // un fond incomplet n'est pas mis en cache : la prochaine demande retentera les tuiles manquantes
+        if (complete) {
+            capture.captured().ifPresent(png -> exportCache.put(key, version, png));
+        }
+    }
 
     @Override
     public byte[] generatePng(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writePng(paper, orientation, dpi, cityId, zoom, showLabels, baos);
+        return baos.toByteArray();
+    }
+
+    @Override
+    public boolean writePng(String paper, String orientation, int dpi, UUID cityId, int zoom, boolean showLabels, OutputStream out) throws Exception {
         // 1) Taille de sortie
         Dimension outDim = RenderUtils.paperToPixels(paper, orientation, dpi);
+        MapScene scene = buildScene(outDim.width, outDim.height, cityId, zoom, showLabels);
+
+        // 2) Rendu des bandes en parallèle, encodées dans l'ordre au fil de l'eau ; le nombre de bandes
+        //    en avance sur l'encodeur est borné pour garder une mémoire proportionnelle au parallélisme
         int width = outDim.width, height = outDim.height;
+        int strips = (height + STRIP_HEIGHT - 1) / STRIP_HEIGHT;
+        int window = mapRenderPool.pool().getParallelism() + 1;
+        Deque<Future<BufferedImage>> pending = new ArrayDeque<>(window);
+        int submitted = 0;
+        try (StreamingPngWriter png = new StreamingPngWriter(out, width, height)) {
+            for (int i = 0; i < strips; i++) {
+                while (submitted < strips && pending.size() < window) {
+                    int y0 = submitted++ * STRIP_HEIGHT;
+                    pending.add(mapRenderPool.pool().submit(() -> renderStrip(scene, width, height, y0)));
+                }
+                BufferedImage strip = await(pending.poll());
+                png.writeRows(strip, strip.getHeight());
+            }
+        } finally {
+            // erreur ou client déconnecté : inutile de finir les bandes restantes
+            pending.forEach(f -> f.cancel(true));
+        }
+        return scene == null || scene.complete();
+    }
+
+    private static BufferedImage renderStrip(MapScene scene, int width, int height, int y0) {
+        int h = Math.min(STRIP_HEIGHT, height - y0);
+        BufferedImage strip = new BufferedImage(width, h, BufferedImage.TYPE_INT_ARGB);
+        if (scene == null) return strip;
 
-        // 2) Géométries (WKB 3857)
+        Graphics2D g = strip.createGraphics();
+        try {
+            g.translate(0, -y0);
+            g.clipRect(0, y0, width, h);
+            drawScene(g, scene, new Rectangle(0, y0, width, h));
+        } finally {
+            g.dispose();
+        }
+        return strip;
+    }
+
+    /** Attend une tâche du pool de rendu en propageant son exception d'origine */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Prépare tout ce qui est indépendant de la bande rendue : mosaïque recadrée, transformation
+     * monde(3857) -> pixels et formes Java2D des territoires. Null si rien à dessiner (image vide).
+     */
+    private MapScene buildScene(int width, int height, UUID cityId, int zoom, boolean showLabels) throws Exception {
+        // version lue avant les requêtes, comme pour le cache d'export
+        LabelLayoutCache.LayoutKey layoutKey = new LabelLayoutCache.LayoutKey(cityId, width, height, zoom, dataVersion.current());
+        Optional<List<PlacedLabel>> cachedLabels = showLabels ? labelLayoutCache.get(layoutKey) : Optional.empty();
+        boolean placeLabels = showLabels && cachedLabels.isEmpty();
+
+        // Géométries (WKB 3857)
         List<TerritoryHullRow> rows = (cityId == null)
                 ? territoryRepo.findAllProjected3857()
                 : territoryRepo.findAllProjected3857ByCityId(cityId);
-        if (rows.isEmpty()) return RenderUtils.emptyPng(width, height);
+        if (rows.isEmpty()) return null;
 
-        // 3) Emprise EXACTE des territoires en 3857 (+ léger padding)
+        // Emprise EXACTE des territoires en 3857 (+ léger padding)
         Bbox3857 b = (cityId == null) ? territoryRepo.findBbox3857() : territoryRepo.findBbox3857ByCityId(cityId);
-        if (b == null || b.getMinx() == null) return RenderUtils.emptyPng(width, height);
+        if (b == null || b.getMinx() == null) return null;
 
         Envelope env3857 = new Envelope(b.getMinx(), b.getMaxx(), b.getMiny(), b.getMaxy());
         // ajuste ici si tu veux moins (ex: 0.02 = 2%)
         env3857.expandBy(env3857.getWidth() * 0.03, env3857.getHeight() * 0.03);
 
-        // 4) Télécharger les tuiles (emprise élargie à la grille WMTS)
-        TileImage tiles = wmtsClient.fetchTiles3857(env3857, zoom);
+        // Zoom du fond : le plus petit assez fin pour la sortie (le zoom demandé n'est qu'un maximum), puis tuiles
+        // depuis le cache de vues d'ensemble ou téléchargées (emprise élargie à la grille WMTS)
+        double metersPerPixel = Math.max(env3857.getWidth() / width, env3857.getHeight() / height);
+        int z = Math.min(zoom, MapMath.optimalZoom(metersPerPixel));
+        WmtsClient.Mosaic mosaic = wmtsClient.fetchOverview3857(env3857, z);
 
-        // 5) Recadrer la mosaïque SUR l’emprise exacte demandée (supprime les « zones inutiles »)
-        TileImage cropped = cropToExtent(tiles, env3857);
-
-        // 6) Canvas + fond (letterboxing, pas de déformation)
-        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = out.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        // Recadrer la mosaïque SUR l’emprise exacte demandée (supprime les « zones inutiles »)
+        TileImage cropped = RenderUtils.cropToExtent(mosaic.image(), env3857);
 
+        // Letterboxing, pas de déformation
         double sFit = Math.min((double) width / cropped.pixelWidth(), (double) height / cropped.pixelHeight());
         int drawW = (int) Math.round(cropped.pixelWidth() * sFit);
         int drawH = (int) Math.round(cropped.pixelHeight() * sFit);
         int padX = (width - drawW) / 2;
         int padY = (height - drawH) / 2;
 
-        g.drawImage(cropped.img(), padX, padY, drawW, drawH, null);
-
-        // 7) Affine world(3857)->pixels basée sur L’EMPRISE RECADRÉE (== env3857)
+        // Affine world(3857)->pixels basée sur L’EMPRISE RECADRÉE (== env3857)
         Envelope E = cropped.env3857(); // == env3857
         double scale = (double) drawW / E.getWidth();
         double ox = padX - E.getMinX() * scale;
         double oy = padY + E.getMaxY() * scale;
 
-        // 8) Overlay (polygones + labels, couleurs ville)
-        WKBReader reader = new WKBReader();
-        g.setStroke(new BasicStroke(1.4f));
-        Color halo = new Color(255, 255, 255, 220);
-        g.setFont(new Font("SansSerif", Font.PLAIN, 18));
+        // Formes des territoires (polygones + ancres des labels, couleurs ville), construites une seule fois pour toutes
+        // les bandes ; décodage WKB et construction des Path2D répartis sur les cœurs
+        List<ParsedRow> parsed = await(mapRenderPool.pool().submit(() -> rows.parallelStream()
+                .map(r -> parseRow(r, scale, ox, oy, placeLabels))
+                .toList()));
 
-        for (TerritoryHullRow r : rows) {
+        List<HullShape> hulls = parsed.stream().map(ParsedRow::hull).toList();
+
+        // Étiquettes : placement sans chevauchement, priorité aux plus grands territoires
+        List<PlacedLabel> labels = List.of();
+        if (cachedLabels.isPresent()) {
+            labels = cachedLabels.get();
+        } else if (placeLabels) {
+            List<LabelPlacer.Candidate> candidates = parsed.stream()
+                    .map(p -> new LabelPlacer.Candidate(p.name(), p.labelX(), p.labelY(), p.area(), p.hull().shape()))
+                    .toList();
+            labels = LabelPlacer.place(candidates, LABEL_METRICS);
+            labelLayoutCache.put(layoutKey, labels);
+        }
+
+        return new MapScene(cropped, mosaic.complete(), padX, padY, drawW, drawH, hulls, labels);
+    }
+
+    /** Décode une ligne (WKB 3857) en forme pixel ; WKBReader n'étant pas thread-safe, un lecteur par appel */
+    private static ParsedRow parseRow(TerritoryHullRow r, double scale, double ox, double oy, boolean withLabel) {
+        WKBReader reader = new WKBReader();
+        try {
             Geometry geom3857 = reader.read(r.getHullWkb());
             Shape shp = RenderUtils.toShape(geom3857, scale, ox, oy);
+            Rectangle bounds = shp.getBounds();
+            bounds.grow(2, 2); // épaisseur du contour
+            HullShape hull = new HullShape(shp, bounds, parseColor(r.getCityColorHex(), DEFAULT_FILL));
 
-            Color fill = parseColor(r.getCityColorHex(), new Color(120, 120, 220, 110));
-            g.setColor(fill);  g.fill(shp);
-            g.setColor(new Color(45, 45, 45, 200)); g.draw(shp);
+            if (!withLabel) return new ParsedRow(hull, r.getName(), 0, 0, 0);
+            Point p = (Point) reader.read(r.getLabelWkb());
+            int x = (int) Math.round(p.getX() * scale + ox);
+            int y = (int) Math.round(oy - p.getY() * scale);
+            return new ParsedRow(hull, r.getName(), x, y, geom3857.getArea());
+        } catch (ParseException e) {
+            throw new IllegalStateException("Géométrie illisible pour le territoire " + r.getName(), e);
         }
+    }
 
-        if (showLabels) {
-            for (TerritoryHullRow r : rows) {
-                Point p = (Point) reader.read(r.getLabelWkb());
-                String text = r.getName() == null ? "" : r.getName();
-
-                int x = (int) Math.round(p.getX() * scale + ox);
-                int y = (int) Math.round(oy - p.getY() * scale);
+    /** Dessine la scène dans une bande ; tout ce qui n'intersecte pas la bande est ignoré */
+    private static void drawScene(Graphics2D g, MapScene scene, Rectangle band) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-                FontMetrics fm = g.getFontMetrics();
-                int w = fm.stringWidth(text), h = fm.getAscent();
+        g.drawImage(scene.basemap().img(), scene.padX(), scene.padY(), scene.drawW(), scene.drawH(), null);
 
-                g.setColor(halo);
-                g.fillRoundRect(x - w/2 - 4, y - h, w + 8, h + 6, 6, 6);
-                g.setColor(Color.BLACK);
-                g.drawString(text, x - w/2, y);
-            }
+        g.setStroke(HULL_STROKE);
+        for (HullShape hull : scene.hulls()) {
+            if (!hull.bounds().intersects(band)) continue;
+            g.setColor(hull.fill());  g.fill(hull.shape());
+            g.setColor(OUTLINE); g.draw(hull.shape());
         }
 
-        g.dispose();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(out, "png", baos);
-        return baos.toByteArray();
+        g.setFont(LABEL_FONT);
+        for (PlacedLabel label : scene.labels()) {
+            if (!label.box().intersects(band)) continue;
+            Rectangle box = label.box();
+            g.setColor(HALO);
+            g.fillRoundRect(box.x, box.y, box.width, box.height, 6, 6);
+            g.setColor(Color.BLACK);
+            g.drawString(label.text(), label.x(), label.y());
+        }
     }
 
-    /**
-     * Recadre la mosaïque de tuiles afin qu’elle corresponde EXACTEMENT à l’emprise demandée.
-     * On travaille en pixels de la mosaïque et en mètres (3857) pour être parfaitement cohérents.
-     */
-    private static TileImage cropToExtent(TileImage tiles, Envelope wanted) {
-        BufferedImage mosaic = tiles.img();
-        Envelope mosaicEnv = tiles.env3857();
-
-        // facteur px/mètre dans la mosaïque
-        double pxPerM_X = tiles.pixelWidth()  / mosaicEnv.getWidth();
-        double pxPerM_Y = tiles.pixelHeight() / mosaicEnv.getHeight();
-
-        // rectangle de crop en px par rapport au raster mosaïque
-        int cropX = (int) Math.round((wanted.getMinX() - mosaicEnv.getMinX()) * pxPerM_X);
-        int cropY = (int) Math.round((mosaicEnv.getMaxY() - wanted.getMaxY()) * pxPerM_Y);
-        int cropW = (int) Math.round(wanted.getWidth()  * pxPerM_X);
-        int cropH = (int) Math.round(wanted.getHeight() * pxPerM_Y);
-
-        // borne dans les limites
-        cropX = Math.max(0, Math.min(cropX, mosaic.getWidth()  - 1));
-        cropY = Math.max(0, Math.min(cropY, mosaic.getHeight() - 1));
-        if (cropX + cropW > mosaic.getWidth())  cropW = mosaic.getWidth()  - cropX;
-        if (cropY + cropH > mosaic.getHeight()) cropH = mosaic.getHeight() - cropY;
-
-        BufferedImage croppedImg = mosaic.getSubimage(cropX, cropY, Math.max(1, cropW), Math.max(1, cropH));
-
-        // IMPORTANT : l’emprise du raster recadré devient l’emprise voulue (wanted)
-        return new TileImage(croppedImg, new Envelope(
-                wanted.getMinX(), wanted.getMaxX(), wanted.getMinY(), wanted.getMaxY()
-        ), croppedImg.getWidth(), croppedImg.getHeight());
+    private static FontMetrics fontMetrics(Font font) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scratch.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            return g.getFontMetrics(font);
+        } finally {
+            g.dispose();
+        }
     }
-}
\ No newline at end of file
+
+    private record MapScene(TileImage basemap, boolean complete, int padX, int padY, int drawW, int drawH,
+                            List<HullShape> hulls, List<PlacedLabel> labels) {}
+
+    private record HullShape(Shape shape, Rectangle bounds, Color fill) {}
+
+    private record ParsedRow(HullShape hull, String name, int labelX, int labelY, double area) {}
+}
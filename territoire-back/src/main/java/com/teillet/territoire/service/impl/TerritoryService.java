@@ -1,33 +1,60 @@
 package com.teillet.territoire.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teillet.territoire.cache.MapDataVersion;
+import com.teillet.territoire.dto.AssignmentDto;
 import com.teillet.territoire.dto.AverageAssignmentDurationDto;
+import com.teillet.territoire.dto.CampaignDto;
 import com.teillet.territoire.dto.TerritoryDistributionByCityDto;
 import com.teillet.territoire.dto.TerritoryDto;
 import com.teillet.territoire.dto.UpdateTerritoryDto;
+import com.teillet.territoire.enums.HullDetail;
 import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.mapper.AssignmentMapper;
 import com.teillet.territoire.mapper.TerritoryMapper;
-import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.model.AddressNotToDo;
+import com.teillet.territoire.model.Block;
 import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.AddressNotToDoRepository;
 import com.teillet.territoire.repository.AssignmentRepository;
 import com.teillet.territoire.repository.BlockRepository;
+import com.teillet.territoire.repository.TerritoryReminderRepository;
 import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.repository.projection.AssignmentRow;
+import com.teillet.territoire.repository.projection.BlockRow;
+import com.teillet.territoire.repository.projection.TerritoryAddressRow;
+import com.teillet.territoire.repository.projection.TerritoryFeatureRow;
+import com.teillet.territoire.repository.projection.TerritoryListRow;
 import com.teillet.territoire.service.ICampaignService;
 import com.teillet.territoire.service.ICityService;
 import com.teillet.territoire.service.ITerritoryService;
+import com.teillet.territoire.utils.GeoJsonStreamWriter;
+import com.teillet.territoire.utils.GeoJsonUtils;
+import com.teillet.territoire.utils.TerritoryUtils;
+import com.teillet.territoire.utils.TwkbFeatureStreamWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -35,21 +62,48 @@ public class TerritoryService implements ITerritoryService {
 	private final TerritoryRepository territoryRepository;
 	private final BlockRepository blockRepository;
 	private final AssignmentRepository assignmentRepository;
+	private final AddressNotToDoRepository addressNotToDoRepository;
+	private final TerritoryReminderRepository territoryReminderRepository;
 	private final ICampaignService campaignService;
 	private final ICityService cityService;
+	private final MapDataVersion mapDataVersion;
+	private final ObjectMapper objectMapper;
+	private final Timer hullFullTimer;
+	private final Timer hullAddTimer;
+	private final Timer hullRemoveTimer;
 
 	public TerritoryService(
 		TerritoryRepository territoryRepository,
 		BlockRepository blockRepository,
 		AssignmentRepository assignmentRepository,
+		AddressNotToDoRepository addressNotToDoRepository,
+		TerritoryReminderRepository territoryReminderRepository,
 		@Lazy ICampaignService campaignService,
-		ICityService cityService
+		ICityService cityService,
+		MapDataVersion mapDataVersion,
+		ObjectMapper objectMapper,
+		MeterRegistry meterRegistry
 	) {
 		this.territoryRepository = territoryRepository;
 		this.blockRepository = blockRepository;
 		this.assignmentRepository = assignmentRepository;
+		this.addressNotToDoRepository = addressNotToDoRepository;
+		this.territoryReminderRepository = territoryReminderRepository;
 		this.campaignService = campaignService;
 		this.cityService = cityService;
+		this.mapDataVersion = mapDataVersion;
+		this.objectMapper = objectMapper;
+		this.hullFullTimer = hullTimer(meterRegistry, "full");
+		this.hullAddTimer = hullTimer(meterRegistry, "add");
+		this.hullRemoveTimer = hullTimer(meterRegistry, "remove");
+	}
+
+	private static Timer hullTimer(MeterRegistry registry, String mode) {
+		return Timer.builder("territory.hull.rebuild")
+				.description("Durée de mise à jour de l'enveloppe d'un territoire")
+				.tag("mode", mode)
+				.publishPercentileHistogram()
+				.register(registry);
 	}
 
 	@Override
@@ -57,22 +111,169 @@ public class TerritoryService implements ITerritoryService {
 		return territoryRepository.findAll();
 	}
 
+	@Transactional
 	@Override
-	public List<TerritoryDto> getAllTerritoryDtos() {
-		return getAllTerritories().stream().map(territory -> {
-			try {
-				return TerritoryMapper.toDto(territory);
-			} catch (IOException e) {
-				throw new RuntimeException(e);
+	public void writeTerritoriesGeoJson(OutputStream out, HullDetail detail) throws IOException {
+		WKBReader reader = new WKBReader();
+		try (Stream<TerritoryFeatureRow> rows = territoryRepository.streamTerritoryFeatures(detail.name());
+			 GeoJsonStreamWriter writer = new GeoJsonStreamWriter(out, detail.getDecimals())) {
+			Iterator<TerritoryFeatureRow> it = rows.iterator();
+			while (it.hasNext()) {
+				TerritoryFeatureRow row = it.next();
+				writer.writeFeature(null, readHull(reader, row), gen -> writeFeatureProperties(gen, row));
 			}
-		}).toList();
+		}
+	}
+
+	@Transactional
+	@Override
+	public void writeTerritoriesTwkb(OutputStream out, HullDetail detail) throws IOException {
+		WKBReader reader = new WKBReader();
+		try (Stream<TerritoryFeatureRow> rows = territoryRepository.streamTerritoryFeatures(detail.name());
+			 TwkbFeatureStreamWriter writer = new TwkbFeatureStreamWriter(out, objectMapper, detail.getDecimals())) {
+			Iterator<TerritoryFeatureRow> it = rows.iterator();
+			while (it.hasNext()) {
+				TerritoryFeatureRow row = it.next();
+				writer.writeFeature(readHull(reader, row), gen -> writeFeatureProperties(gen, row));
+			}
+		}
+	}
+
+	@Transactional
+	@Override
+	public void writeTerritoryDtosTwkb(OutputStream out, HullDetail detail) throws IOException {
+		try (TwkbFeatureStreamWriter writer = new TwkbFeatureStreamWriter(out, objectMapper, detail.getDecimals())) {
+			forEachListRow(detail, (row, blocks, addresses, assignments) -> {
+				writer.writeFeature(row.getConcaveHull(), TerritoryMapper.toDtoWithoutGeojson(row, addresses, assignments));
+				writeBlockRecords(writer, row.getId(), blocks, detail);
+			});
+		}
+	}
+
+	@Transactional
+	@Override
+	public void writeTerritoryDtoTwkb(UUID id, HullDetail detail, OutputStream out) throws IOException {
+		Territory territory = territoryRepository.findById(id)
+				.orElseThrow(() -> new RuntimeException("Territoire non trouvé"));
+		try (TwkbFeatureStreamWriter writer = new TwkbFeatureStreamWriter(out, objectMapper, detail.getDecimals())) {
+			writeTerritoryRecords(writer, territory, detail);
+		}
+	}
+
+	/**
+	 * Un enregistrement pour le territoire (attributs du DTO, géométrie = enveloppe) suivi d'un par pâté
+	 * ({@code id}, {@code type = BLOCK}, {@code territoryId}) : l'équivalent du champ geojson du DTO JSON.
+	 */
+	private static void writeTerritoryRecords(TwkbFeatureStreamWriter writer, Territory territory, HullDetail detail) throws IOException {
+		writer.writeFeature(TerritoryMapper.hullFor(territory, detail), TerritoryMapper.toDtoWithoutGeojson(territory));
+		writeBlockRecords(writer, territory.getId(), territory.getBlocks(), detail);
+	}
+
+	private static void writeBlockRecords(TwkbFeatureStreamWriter writer, UUID id, List<Block> blocks, HullDetail detail) throws IOException {
+		String territoryId = id.toString();
+		for (Block block : blocks) {
+			writer.writeFeature(GeoJsonUtils.simplifyBlock(block.getBlock(), detail), gen -> {
+				gen.writeStringField("id", block.getId().toString());
+				gen.writeStringField("type", GeoJsonUtils.BLOCK);
+				gen.writeStringField("territoryId", territoryId);
+			});
+		}
+	}
+
+	/** Propriétés communes aux features GeoJSON et TWKB de la liste des territoires */
+	private static void writeFeatureProperties(JsonGenerator gen, TerritoryFeatureRow row) throws IOException {
+		gen.writeStringField("id", row.getId().toString());
+		gen.writeStringField("name", row.getName());
+		gen.writeStringField("status", row.getStatus());
+		gen.writeStringField("city", row.getCityName());
+		boolean assigned = row.getAssignedOn() != null;
+		gen.writeStringField("lastVisitedOn", row.getLastVisitedOn() != null ? row.getLastVisitedOn() : TerritoryUtils.NOUVEAU);
+		String assignee = TerritoryUtils.assigneeName(row.getAssigneeFirstName(), row.getAssigneeLastName());
+		gen.writeStringField("assignedTo", assigned && assignee != null ? assignee : TerritoryUtils.NA);
+		gen.writeStringField("assignedOn", assigned ? row.getAssignedOn() : TerritoryUtils.NA);
+		gen.writeStringField("waitedFor", assigned && row.getDueDate() != null ? row.getDueDate() : TerritoryUtils.NA);
+		gen.writeStringField("type", row.getType());
+		// historique non embarqué : le détail d'un territoire le fournit (/api/territoires/{id})
+		gen.writeArrayFieldStart("assignments");
+		gen.writeEndArray();
+	}
+
+	private static Geometry readHull(WKBReader reader, TerritoryFeatureRow row) {
+		if (row.getHullWkb() == null) return null;
+		try {
+			return reader.read(row.getHullWkb());
+		} catch (ParseException e) {
+			log.warn("Enveloppe illisible pour le territoire {} : {}", row.getId(), e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public List<TerritoryDto> getAllTerritoryDtos() {
+		List<TerritoryDto> dtos = new ArrayList<>();
+		try {
+			forEachListRow(HullDetail.FULL, (row, blocks, addresses, assignments) ->
+					dtos.add(TerritoryMapper.toDto(row, blocks, addresses, assignments)));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return dtos;
+	}
+
+	@FunctionalInterface
+	private interface ListRowConsumer {
+		void accept(TerritoryListRow row, List<Block> blocks, List<AddressNotToDo> addresses, List<AssignmentDto> assignments) throws IOException;
+	}
+
+	/**
+	 * Modèle de lecture de la liste : un nombre fixe de requêtes ensemblistes, regroupées ici par territoire,
+	 * au lieu de charger pour chaque territoire sa ville, ses pâtés, ses adresses et ses attributions.
+	 * Partagé par la liste JSON et le flux TWKB.
+	 */
+	private void forEachListRow(HullDetail detail, ListRowConsumer consumer) throws IOException {
+		Map<UUID, List<Block>> blocks = blockRepository.findAllBlockRows().stream()
+				.collect(Collectors.groupingBy(BlockRow::getTerritoryId,
+						Collectors.mapping(row -> Block.builder().id(row.getId()).block(row.getBlock()).build(), Collectors.toList())));
+		Map<UUID, List<AddressNotToDo>> addresses = addressNotToDoRepository.findAllAddressRows().stream()
+				.collect(Collectors.groupingBy(TerritoryAddressRow::getTerritoryId,
+						Collectors.mapping(TerritoryService::toAddressNotToDo, Collectors.toList())));
+		Map<UUID, CampaignDto> campaigns = campaignService.getCampaignDtosById();
+		Map<UUID, List<AssignmentDto>> assignments = assignmentRepository.findAllAssignmentRows().stream()
+				.collect(Collectors.groupingBy(AssignmentRow::getTerritoryId,
+						Collectors.mapping(row -> AssignmentMapper.toDto(row, row.getCampaignId() != null ? campaigns.get(row.getCampaignId()) : null),
+								Collectors.toList())));
+
+		for (TerritoryListRow row : territoryRepository.findAllListRows(detail.name())) {
+			consumer.accept(row,
+					blocks.getOrDefault(row.getId(), List.of()),
+					addresses.getOrDefault(row.getId(), new ArrayList<>()),
+					assignments.getOrDefault(row.getId(), List.of()));
+		}
+	}
+
+	private static AddressNotToDo toAddressNotToDo(TerritoryAddressRow row) {
+		return AddressNotToDo.builder()
+				.id(row.getId())
+				.street(row.getStreet())
+				.number(row.getNumber())
+				.zipCode(row.getZipCode())
+				.city(row.getCity())
+				.date(row.getDate())
+				.build();
 	}
 
 	@Transactional
 	@Override
 	public Territory saveTerritory(Territory territory) {
+		boolean created = territory.getId() == null;
 		territory.setLastModifiedDate(LocalDate.now());
-		return territoryRepository.save(territory);
+		Territory saved = territoryRepository.save(territory);
+		if (created) {
+			mapDataVersion.bump();
+		} else {
+			mapDataVersion.bumpAttributes();
+		}
+		return saved;
 	}
 
 	@Transactional
@@ -80,20 +281,26 @@ public class TerritoryService implements ITerritoryService {
 	public void updateTerritoryStatus(Territory territory, TerritoryStatus newStatus) {
 		territory.setStatus(newStatus);
 		territoryRepository.save(territory);
+		mapDataVersion.bumpAttributes();
 	}
 
-	@Scheduled(cron = "0 0 0 * * *")
 	@Transactional
 	@Override
-	public void releasePendingTerritories() {
-		LocalDate thresholdDate = LocalDate.now().minusMonths(4);
-		List<Territory> pendingTerritories = territoryRepository.findAll().stream()
-				.filter(t -> t.getStatus() == TerritoryStatus.PENDING && t.getAssignments().stream().max(Comparator.comparing(Assignment::getReturnDate)).stream().findFirst().orElseThrow().getReturnDate().isBefore(thresholdDate))
-				.toList();
+	public int releasePendingTerritories() {
+		// une seule requête sur la date de dernier retour dénormalisée, sans charger les territoires ni leur historique
+		int released = territoryRepository.releasePendingTerritories(LocalDate.now().minusMonths(4));
+		if (released > 0) mapDataVersion.bumpAttributes();
+		log.info("{} territoire(s) en attente rendu(s) disponible(s)", released);
+		return released;
+	}
 
-		for (Territory territory : pendingTerritories) {
-			updateTerritoryStatus(territory, TerritoryStatus.AVAILABLE);
-		}
+	@Transactional
+	@Override
+	public int markOverdueTerritoriesLate() {
+		int late = territoryRepository.markOverdueTerritoriesLate(LocalDate.now());
+		if (late > 0) mapDataVersion.bumpAttributes();
+		log.info("{} territoire(s) passé(s) en retard", late);
+		return late;
 	}
 
 	@Override
@@ -103,10 +310,10 @@ public class TerritoryService implements ITerritoryService {
 	}
 
 	@Override
-	public TerritoryDto getTerritoryDto(UUID id) throws IOException {
+	public TerritoryDto getTerritoryDto(UUID id, HullDetail detail) throws IOException {
 		Territory territory = territoryRepository.findById(id)
 				.orElseThrow(() -> new RuntimeException("Territoire non trouvé"));
-		return TerritoryMapper.toDto(territory);
+		return TerritoryMapper.toDto(territory, detail);
 	}
 
 	@Transactional
@@ -114,17 +321,71 @@ public class TerritoryService implements ITerritoryService {
 	public void updateConcaveHull(UUID territoryId) {
 		log.info("Début : Mise à jour de la concave hull");
 
+		// la date de modification est mise à jour par la requête : pas de rechargement ni de sauvegarde de l'entité,
+		// qui réécrirait une enveloppe périmée depuis le contexte de persistance
 		log.info("Mise à jour de la concave hull du territoire {}", territoryId);
-		territoryRepository.updateConcaveHullTerritory(territoryId);
-
-		log.info("Récupération du territoire mis à jour");
-		Territory result = getTerritory(territoryId);
-		result.setLastModifiedDate(LocalDate.now());
-		territoryRepository.save(result);
+		territoryRepository.lockForHullUpdate(territoryId);
+		hullFullTimer.record(() -> territoryRepository.updateConcaveHullTerritory(territoryId));
+		mapDataVersion.bump();
 
 		log.info("Fin : Mise à jour de la concave hull");
 	}
 
+	@Transactional
+	@Override
+	public void refreshAssignmentSummaries(Collection<UUID> territoryIds) {
+		if (territoryIds.isEmpty()) return;
+		log.debug("Mise à jour du résumé des attributions de {} territoire(s)", territoryIds.size());
+		territoryRepository.refreshAssignmentSummaries(territoryIds);
+	}
+
+	@Transactional
+	@Override
+	public void refreshAssignmentSummariesOfCampaign(UUID campaignId) {
+		log.debug("Mise à jour du résumé des attributions des territoires de la campagne {}", campaignId);
+		territoryRepository.refreshAssignmentSummariesOfCampaign(campaignId);
+	}
+
+	@Transactional
+	@Override
+	public void refreshAllAssignmentSummaries() {
+		log.info("Reconstruction du résumé des attributions de tous les territoires");
+		territoryRepository.refreshAllAssignmentSummaries();
+	}
+
+	// rattrapage unique des résumés manquants (données antérieures aux colonnes) : sans effet une fois fait
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void backfillAssignmentSummaries() {
+		int updated = territoryRepository.refreshMissingAssignmentSummaries();
+		if (updated > 0) {
+			log.info("Résumé des attributions rattrapé pour {} territoire(s)", updated);
+		}
+	}
+
+	@Transactional
+	@Override
+	public void addBlockToConcaveHull(UUID territoryId, UUID blockId) {
+		log.info("Ajout du pâté {} à la concave hull du territoire {}", blockId, territoryId);
+		territoryRepository.lockForHullUpdate(territoryId);
+		hullAddTimer.record(() -> territoryRepository.addBlockToConcaveHull(territoryId, blockId));
+		mapDataVersion.bump();
+	}
+
+	@Transactional
+	@Override
+	public void removeBlockFromConcaveHull(UUID territoryId, UUID blockId) {
+		log.info("Suppression du pâté {} de la concave hull du territoire {}", blockId, territoryId);
+		territoryRepository.lockForHullUpdate(territoryId);
+		int updated = hullRemoveTimer.record(() -> territoryRepository.removeBlockFromConcaveHull(territoryId, blockId));
+		if (updated == 0) {
+			log.info("Pas d'union tamponnée pour le territoire {}, recalcul complet", territoryId);
+			updateConcaveHull(territoryId);
+			return;
+		}
+		mapDataVersion.bump();
+	}
+
 	@Override
 	public TerritoryDto updateTerritory(UUID id, UpdateTerritoryDto updateDto) throws IOException {
 		Territory territory = getTerritory(id);
@@ -140,6 +401,9 @@ public class TerritoryService implements ITerritoryService {
 			territory.setLastModifiedDate(LocalDate.now());
 		}
 
+		// Le type entre dans les statistiques des campagnes
+		boolean typeModified = !Objects.equals(territory.getType(), updateDto.getType());
+
 		// ✅ Mise à jour des champs modifiables
 		territory.setName(updateDto.getName());
 		territory.setNote(updateDto.getNote());
@@ -150,16 +414,26 @@ public class TerritoryService implements ITerritoryService {
 			territory.setCity(cityService.getCity(updateDto.getCityId()));
 		}
 
-		return TerritoryMapper.toDto(territoryRepository.save(territory));
+		Territory saved = territoryRepository.save(territory);
+		// nom ou ville (couleur) modifiés : les cartes déjà rendues sont obsolètes
+		if (!onlyNoteModified) {
+			mapDataVersion.bump();
+		}
+		if (typeModified) {
+			campaignService.evictAllCampaignStatistics();
+		}
+		return TerritoryMapper.toDto(saved);
 	}
 
 	@Override
 	@Transactional
 	public void deleteTerritory(UUID territoryId) {
-		Territory territory = getTerritory(territoryId);
+		getTerritory(territoryId);
 
-		// Remove territory from all campaigns
-		campaignService.deleteTerrritoryFromAllCampaign(territory);
+		// Tables de jointure vidées par des DELETE directs, dans la même transaction que le reste
+		campaignService.deleteTerrritoryFromAllCampaign(territoryId);
+		log.info("Suppression des liens entre le territoire {} et les rappels", territoryId);
+		territoryReminderRepository.deleteTerritoryLinks(territoryId);
 
 		log.info("Suppression des pâtés appartenant au territoire {}", territoryId);
 		blockRepository.deleteBlockByTerritory_Id(territoryId);
@@ -167,18 +441,18 @@ public class TerritoryService implements ITerritoryService {
 		assignmentRepository.deleteByTerritory_Id(territoryId);
 		log.info("Suppression du territoire {}", territoryId);
 		territoryRepository.deleteById(territoryId);
+		mapDataVersion.bump();
 	}
 
 	@Transactional
 	@Override
 	public void revokeAssignmentsBulk(String city) {
-		if (city != null) {
-			assignmentRepository.deleteAssignmentByTerritory_City_Name(city);
-			territoryRepository.findByCity_Name(city).forEach(t -> updateTerritoryStatus(t, TerritoryStatus.AVAILABLE));
-		} else {
-			assignmentRepository.deleteAll();
-			territoryRepository.findAll().forEach(t -> updateTerritoryStatus(t, TerritoryStatus.AVAILABLE));
-		}
+		// deux instructions ensemblistes, quel que soit le nombre d'attributions : archivage + suppression, puis remise à zéro
+		int revoked = assignmentRepository.archiveAndDeleteAssignments(city);
+		int territories = territoryRepository.resetRevokedTerritories(city);
+		mapDataVersion.bumpAttributes();
+		log.info("{} attribution(s) archivée(s) et retirée(s), {} territoire(s) remis à disposition{}",
+				revoked, territories, city != null ? " pour " + city : "");
 	}
 
 	@Override
@@ -10,7 +10,6 @@ import com.teillet.territoire.service.ITerritoryStatusHistoryService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -23,9 +22,14 @@ public class TerritoryStatusHistoryService implements ITerritoryStatusHistorySer
 	private final TerritoryRepository territoryRepository;
 	private final TerritoryStatusHistoryRepository territoryStatusHistoryRepository;
 
-	@Scheduled(cron = "0 0 0 * * *") // Exécution chaque jour à minuit
+	// planifié par TerritoryStatusTransitionService, après les changements de statut de la nuit
 	@Transactional
+	@Override
 	public void recordDailyStatistics() {
+		if (territoryStatusHistoryRepository.existsByDate(LocalDate.now())) {
+			log.info("Statistiques du jour déjà enregistrées");
+			return;
+		}
 		List<TerritoryStatisticsProjection> stats = territoryRepository.getCurrentTerritoryStats();
 
 		// Initialisation des valeurs par défaut
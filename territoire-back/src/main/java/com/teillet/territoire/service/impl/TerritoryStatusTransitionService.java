@@ -0,0 +1,81 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.service.ITerritoryService;
+import com.teillet.territoire.service.ITerritoryStatusHistoryService;
+import com.teillet.territoire.service.ITerritoryStatusTransitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Changements de statut de la nuit, exécutés en requêtes ensemblistes (UPDATE ... FROM) dans une seule transaction.
+ * Un verrou consultatif PostgreSQL, libéré au commit, garantit qu'une seule instance les exécute quand
+ * l'application tourne en plusieurs exemplaires ; les autres ignorent l'exécution.
+ */
+@Service
+@Slf4j
+public class TerritoryStatusTransitionService implements ITerritoryStatusTransitionService {
+
+	// clé arbitraire mais fixe du verrou consultatif, partagée par toutes les instances
+	private static final long LOCK_KEY = 0x7465727269746F31L;
+
+	private final TerritoryRepository territoryRepository;
+	private final ITerritoryService territoryService;
+	private final ITerritoryStatusHistoryService territoryStatusHistoryService;
+
+	private final Timer runTimer;
+	private final Counter skippedRuns;
+	private final Counter lateTerritories;
+	private final Counter releasedTerritories;
+
+	public TerritoryStatusTransitionService(
+		TerritoryRepository territoryRepository,
+		ITerritoryService territoryService,
+		ITerritoryStatusHistoryService territoryStatusHistoryService,
+		MeterRegistry meterRegistry
+	) {
+		this.territoryRepository = territoryRepository;
+		this.territoryService = territoryService;
+		this.territoryStatusHistoryService = territoryStatusHistoryService;
+
+		this.runTimer = Timer.builder("territory.transitions.run")
+				.description("Durée du traitement de nuit des statuts de territoire")
+				.register(meterRegistry);
+		this.skippedRuns = Counter.builder("territory.transitions.skipped")
+				.description("Exécutions ignorées, verrou détenu par une autre instance")
+				.register(meterRegistry);
+		this.lateTerritories = Counter.builder("territory.transitions.rows")
+				.tag("transition", "late")
+				.register(meterRegistry);
+		this.releasedTerritories = Counter.builder("territory.transitions.rows")
+				.tag("transition", "released")
+				.register(meterRegistry);
+	}
+
+	@Scheduled(cron = "0 0 0 * * *")
+	@Transactional
+	@Override
+	public void runNightlyTransitions() {
+		if (!territoryRepository.tryAdvisoryXactLock(LOCK_KEY)) {
+			log.info("Traitement de nuit des statuts déjà en cours sur une autre instance : ignoré");
+			skippedRuns.increment();
+			return;
+		}
+
+		runTimer.record(() -> {
+			int late = territoryService.markOverdueTerritoriesLate();
+			int released = territoryService.releasePendingTerritories();
+			lateTerritories.increment(late);
+			releasedTerritories.increment(released);
+
+			// après les transitions : les statistiques du jour reflètent les statuts mis à jour
+			territoryStatusHistoryService.recordDailyStatistics();
+			log.info("Traitement de nuit des statuts terminé : {} en retard, {} disponible(s)", late, released);
+		});
+	}
+}
@@ -0,0 +1,63 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.cache.ByteLruCache;
+import com.teillet.territoire.cache.MapDataVersion;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.service.ITerritoryTileService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+public class TerritoryTileService implements ITerritoryTileService {
+	private static final byte[] EMPTY_TILE = new byte[0];
+
+	private final TerritoryRepository territoryRepository;
+	private final MapDataVersion mapDataVersion;
+	private final ByteLruCache<TileCoord> tileCache;
+
+	public TerritoryTileService(
+		TerritoryRepository territoryRepository,
+		MapDataVersion mapDataVersion,
+		@Value("${map.mvt-cache.max-bytes:67108864}") long maxBytes,
+		MeterRegistry registry
+	) {
+		this.territoryRepository = territoryRepository;
+		this.mapDataVersion = mapDataVersion;
+		this.tileCache = new ByteLruCache<>("map.mvt.cache", maxBytes, maxBytes, registry);
+	}
+
+	@Override
+	public byte[] getTile(int z, int x, int y) {
+		validate(z, x, y);
+
+		// version lue AVANT la requête : une modification concurrente rend simplement l'entrée obsolète
+		TileCoord coord = new TileCoord(z, x, y, mapDataVersion.currentWithAttributes());
+		return tileCache.get(coord).orElseGet(() -> {
+			log.debug("Génération de la tuile MVT {}/{}/{}", z, x, y);
+			byte[] tile = territoryRepository.findMvtTile(z, x, y);
+			if (tile == null) tile = EMPTY_TILE;
+			tileCache.put(coord, tile);
+			return tile;
+		});
+	}
+
+	@Override
+	public String getTileEtag(int z, int x, int y) {
+		return "\"%d-%d-%d-%d\"".formatted(mapDataVersion.currentWithAttributes(), z, x, y);
+	}
+
+	private static void validate(int z, int x, int y) {
+		if (z < 0 || z > 22) {
+			throw new IllegalArgumentException("Niveau de zoom invalide : " + z);
+		}
+		int max = 1 << z;
+		if (x < 0 || x >= max || y < 0 || y >= max) {
+			throw new IllegalArgumentException("Coordonnées de tuile invalides : %d/%d/%d".formatted(z, x, y));
+		}
+	}
+
+	private record TileCoord(int z, int x, int y, long version) {}
+}
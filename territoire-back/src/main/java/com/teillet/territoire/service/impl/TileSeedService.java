@@ -0,0 +1,124 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.config.IgnWmtsProperties;
+import com.teillet.territoire.config.TileSourceProperties;
+import com.teillet.territoire.record.TileKey;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.repository.projection.Bbox3857;
+import com.teillet.territoire.service.ITileSeedService;
+import com.teillet.territoire.tiles.DirectoryTileSource;
+import com.teillet.territoire.tiles.IgnWmtsTileSource;
+import com.teillet.territoire.utils.MapMath;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Envelope;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TileSeedService implements ITileSeedService {
+
+    private final TerritoryRepository territoryRepo;
+    private final IgnWmtsTileSource wmtsSource;
+    private final DirectoryTileSource directorySource;
+    private final IgnWmtsProperties ignProps;
+    private final TileSourceProperties props;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Override
+    public int startSeed(List<Integer> zooms) {
+        Bbox3857 b = territoryRepo.findBbox3857();
+        if (b == null || b.getMinx() == null) {
+            throw new IllegalStateException("Aucun territoire : emprise de pré-génération inconnue");
+        }
+        // même marge que les exports
+        Envelope env = new Envelope(b.getMinx(), b.getMaxx(), b.getMiny(), b.getMaxy());
+        env.expandBy(env.getWidth() * 0.03, env.getHeight() * 0.03);
+
+        List<TileKey> keys = new ArrayList<>();
+        for (int z : new TreeSet<>(zooms)) {
+            if (z < 0 || z > 19) throw new IllegalArgumentException("Zoom hors limites : " + z);
+            int xMin = MapMath.meterX2tileX(env.getMinX(), z), xMax = MapMath.meterX2tileX(env.getMaxX(), z);
+            int yMin = MapMath.meterY2tileY(env.getMaxY(), z), yMax = MapMath.meterY2tileY(env.getMinY(), z);
+            long count = (long) (xMax - xMin + 1) * (yMax - yMin + 1);
+            if (keys.size() + count > props.getSeedMaxTiles()) {
+                throw new IllegalArgumentException("Trop de tuiles à pré-générer (> " + props.getSeedMaxTiles() + ")");
+            }
+            for (int x = xMin; x <= xMax; x++) {
+                for (int y = yMin; y <= yMax; y++) {
+                    keys.add(new TileKey(ignProps.getLayer(), ignProps.getStyle(), ignProps.getFormat(), z, x, y));
+                }
+            }
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Une pré-génération est déjà en cours");
+        }
+        log.info("Pré-génération de {} tuiles (zooms {}) vers la pyramide locale", keys.size(), zooms);
+        Thread.ofVirtual().name("tile-seed").start(() -> {
+            try {
+                seed(keys);
+            } finally {
+                running.set(false);
+            }
+        });
+        return keys.size();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void seed(List<TileKey> keys) {
+        AtomicInteger downloaded = new AtomicInteger(), skipped = new AtomicInteger(), failed = new AtomicInteger();
+        // soumission au rythme du plafond par hôte : l'échéance de chaque tuile ne court qu'une fois sa requête partie
+        Semaphore inFlight = new Semaphore(ignProps.getMaxConcurrencyPerHost());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (TileKey key : keys) {
+                if (directorySource.contains(key)) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        // téléchargement direct : les tuiles vont dans la pyramide locale, pas dans le cache des exports
+                        byte[] data = wmtsSource.download(key, Instant.now().plus(ignProps.getMosaicDeadline()));
+                        if (data == null) {
+                            failed.incrementAndGet();
+                            return;
+                        }
+                        directorySource.store(key, data);
+                        downloaded.incrementAndGet();
+                    } catch (IOException e) {
+                        log.warn("Tuile {} non enregistrée : {}", key, e.getMessage());
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Pré-génération interrompue");
+        }
+
+        log.info("Pré-génération terminée : {} téléchargées, {} déjà présentes, {} en échec",
+                downloaded.get(), skipped.get(), failed.get());
+    }
+}
@@ -0,0 +1,69 @@
+package com.teillet.territoire.tiles;
+
+import com.teillet.territoire.config.TileSourceProperties;
+import com.teillet.territoire.record.TileKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Pyramide de tuiles locale {@code {racine}/{z}/{x}/{y}.{ext}} (XYZ, compatible avec les outils de découpage usuels) :
+ * les exports ne dépendent plus du réseau. Alimentée par la pré-génération (TileSeedService) ou copiée telle quelle.
+ */
+@Slf4j
+@Component
+public class DirectoryTileSource implements TileSource {
+
+    private final Path root;
+
+    public DirectoryTileSource(TileSourceProperties props) {
+        this.root = Path.of(props.getDirectory());
+    }
+
+    @Override
+    public byte[] load(TileKey key, Instant deadline) {
+        Path file = path(key);
+        // lecture directe dans un tableau à la taille exacte du fichier : un seul appel système pour une tuile de quelques Ko
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                // lecture jusqu'à remplir le tampon
+            }
+            return buf.array();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Tuile locale {} illisible : {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean contains(TileKey key) {
+        return Files.isRegularFile(path(key));
+    }
+
+    /** Écriture atomique (fichier temporaire puis move) : un export concurrent ne lit jamais de tuile tronquée */
+    public void store(TileKey key, byte[] data) throws IOException {
+        Path target = path(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "tile", ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path path(TileKey key) {
+        return root
+                .resolve(Integer.toString(key.z()))
+                .resolve(Integer.toString(key.x()))
+                .resolve(key.y() + "." + key.extension());
+    }
+}
@@ -0,0 +1,154 @@
+package com.teillet.territoire.tiles;
+
+import com.teillet.territoire.cache.TileCache;
+import com.teillet.territoire.config.IgnWmtsProperties;
+import com.teillet.territoire.record.CachedTile;
+import com.teillet.territoire.record.TileKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/** Tuiles du service WMTS de l'IGN, derrière le cache à deux niveaux {@link TileCache} */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IgnWmtsTileSource implements TileSource {
+
+    private final IgnWmtsProperties props;
+    private final TileCache tileCache;
+
+    /** Plafond de requêtes simultanées par hôte WMTS (HTTP/2 multiplexe sur une seule connexion) */
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Tuile encodée depuis le cache (mémoire puis disque) ; le réseau n'est sollicité que pour une tuile
+     * absente ou périmée, avec revalidation conditionnelle (If-None-Match / If-Modified-Since) si possible.
+     * En cas d'échec réseau, une tuile périmée reste préférable au fond gris.
+     */
+    @Override
+    public byte[] load(TileKey key, Instant deadline) {
+        CachedTile cached = tileCache.get(key).orElse(null);
+        if (cached != null && tileCache.isFresh(cached)) return cached.data();
+
+        CachedTile fetched = fetch(key, cached, deadline);
+        if (fetched != null) {
+            tileCache.put(key, fetched);
+            return fetched.data();
+        }
+        return cached != null ? cached.data() : null;
+    }
+
+    /**
+     * Tuile téléchargée sans lire ni alimenter {@link TileCache} : pour la pré-génération, dont la pyramide locale
+     * est le stockage (évite de doubler les tuiles sur disque et de vider le cache mémoire des exports).
+     * Null si la tuile n'a pas pu être obtenue avant l'échéance.
+     */
+    public byte[] download(TileKey key, Instant deadline) {
+        CachedTile fetched = fetch(key, null, deadline);
+        return fetched != null ? fetched.data() : null;
+    }
+
+    /**
+     * Requête WMTS avec nouvelles tentatives : tuile reçue, tuile {@code cached} revalidée (304), ou null en échec.
+     * Conditionnelle (If-None-Match / If-Modified-Since) si une version en cache est fournie.
+     */
+    private CachedTile fetch(TileKey key, CachedTile cached, Instant deadline) {
+        String url = String.format(Locale.ROOT,
+                "%s?SERVICE=WMTS&REQUEST=GetTile&VERSION=1.0.0&" +
+                        "LAYER=%s&STYLE=%s&FORMAT=%s&" +
+                        "TILEMATRIXSET=PM&TILEMATRIX=%d&TILEROW=%d&TILECOL=%d",
+                props.getWmtsBase(),
+                enc(key.layer()), enc(key.style()), enc(key.format()),
+                key.z(), key.y(), key.x()
+        );
+        URI uri = URI.create(url);
+        Semaphore permits = hostPermits.computeIfAbsent(uri.getHost(), h -> new Semaphore(props.getMaxConcurrencyPerHost()));
+
+        for (int attempt = 0; attempt <= props.getMaxRetries(); attempt++) {
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.isNegative() || remaining.isZero()) break;
+
+            HttpRequest.Builder req = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .header("User-Agent", "Territoire-Exporter/1.0")
+                    .timeout(min(props.getTileTimeout(), remaining))
+                    .GET();
+            if (cached != null) {
+                if (cached.etag() != null) req.header("If-None-Match", cached.etag());
+                if (cached.lastModified() != null) req.header("If-Modified-Since", cached.lastModified());
+            }
+
+            try {
+                HttpResponse<byte[]> resp;
+                permits.acquire();
+                try {
+                    resp = http.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+                } finally {
+                    permits.release();
+                }
+
+                if (resp.statusCode() == 304 && cached != null) {
+                    return cached.revalidated();
+                }
+                if (resp.statusCode() == 200) {
+                    return new CachedTile(
+                            resp.body(),
+                            resp.headers().firstValue("ETag").orElse(null),
+                            resp.headers().firstValue("Last-Modified").orElse(null),
+                            Instant.now());
+                }
+                log.debug("Tuile {} : statut HTTP {} (tentative {})", key, resp.statusCode(), attempt + 1);
+                // 4xx (hors 429) : inutile de réessayer, la tuile n'existe pas
+                if (resp.statusCode() < 500 && resp.statusCode() != 429) break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                log.debug("Tuile {} : échec du téléchargement (tentative {}) : {}", key, attempt + 1, e.getMessage());
+            }
+
+            if (!backoff(attempt, deadline)) break;
+        }
+        return null;
+    }
+
+    /** Attente exponentielle avant la tentative suivante ; faux si l'échéance serait dépassée */
+    private boolean backoff(int attempt, Instant deadline) {
+        long delay = props.getRetryBackoff().toMillis() << attempt;
+        if (Instant.now().plusMillis(delay).isAfter(deadline)) return false;
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static String enc(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,15 @@
+package com.teillet.territoire.tiles;
+
+import com.teillet.territoire.record.TileKey;
+
+import java.time.Instant;
+
+/**
+ * Fournisseur de tuiles de fond de carte (grille PM / EPSG:3857, 256 px).
+ * La source active est choisie par {@code map.tiles.source} (voir TileSourceConfig).
+ */
+public interface TileSource {
+
+    /** Tuile encodée (PNG/JPEG), ou null si elle n'est pas disponible avant l'échéance */
+    byte[] load(TileKey key, Instant deadline);
+}
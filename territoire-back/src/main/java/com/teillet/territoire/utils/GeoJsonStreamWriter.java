@@ -0,0 +1,108 @@
+package com.teillet.territoire.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.locationtech.jts.geom.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Écriture d'une FeatureCollection GeoJSON au fil de l'eau : chaque feature est écrite directement sur le flux,
+ * coordonnées lues dans les CoordinateSequence et arrondies (6 décimales par défaut, ~10 cm), sans feature intermédiaire.
+ * La mémoire utilisée ne dépend pas du nombre de features.
+ */
+public class GeoJsonStreamWriter implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int DEFAULT_DECIMALS = 6;
+    /** Vidage régulier : le client reçoit les premières features sans attendre la fin de la requête */
+    private static final int FLUSH_EVERY = 100;
+
+    @FunctionalInterface
+    public interface PropertiesWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    private final JsonGenerator gen;
+    private final double precision;
+    private int written;
+
+    public GeoJsonStreamWriter(OutputStream out) throws IOException {
+        this(out, DEFAULT_DECIMALS);
+    }
+
+    public GeoJsonStreamWriter(OutputStream out, int decimals) throws IOException {
+        this.precision = Math.pow(10, decimals);
+        this.gen = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        gen.writeStartObject();
+        gen.writeStringField("type", "FeatureCollection");
+        gen.writeArrayFieldStart("features");
+    }
+
+    public void writeFeature(String id, Geometry geometry, PropertiesWriter properties) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "Feature");
+        if (id != null) gen.writeStringField("id", id);
+        gen.writeFieldName("geometry");
+        writeGeometry(geometry);
+        gen.writeObjectFieldStart("properties");
+        properties.write(gen);
+        gen.writeEndObject();
+        gen.writeEndObject();
+
+        if (++written % FLUSH_EVERY == 1) gen.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.close();
+    }
+
+    private void writeGeometry(Geometry g) throws IOException {
+        if (g == null || g.isEmpty()) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeStringField("type", g.getGeometryType());
+        gen.writeFieldName("coordinates");
+        if (g instanceof Point p) {
+            writePosition(p.getCoordinateSequence(), 0);
+        } else if (g instanceof LineString l) {
+            writeSequence(l.getCoordinateSequence());
+        } else if (g instanceof Polygon p) {
+            writePolygon(p);
+        } else if (g instanceof MultiPolygon mp) {
+            gen.writeStartArray();
+            for (int i = 0; i < mp.getNumGeometries(); i++) writePolygon((Polygon) mp.getGeometryN(i));
+            gen.writeEndArray();
+        } else {
+            throw new IllegalArgumentException("Géométrie non supportée : " + g.getGeometryType());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writePolygon(Polygon p) throws IOException {
+        gen.writeStartArray();
+        writeSequence(p.getExteriorRing().getCoordinateSequence());
+        for (int i = 0; i < p.getNumInteriorRing(); i++) writeSequence(p.getInteriorRingN(i).getCoordinateSequence());
+        gen.writeEndArray();
+    }
+
+    private void writeSequence(CoordinateSequence seq) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < seq.size(); i++) writePosition(seq, i);
+        gen.writeEndArray();
+    }
+
+    private void writePosition(CoordinateSequence seq, int i) throws IOException {
+        gen.writeStartArray();
+        gen.writeNumber(Math.round(seq.getX(i) * precision) / precision);
+        gen.writeNumber(Math.round(seq.getY(i) * precision) / precision);
+        gen.writeEndArray();
+    }
+}
@@ -1,8 +1,9 @@
 package com.teillet.territoire.utils;
 
 import com.teillet.territoire.dto.BlockDto;
+import com.teillet.territoire.dto.BlockFeatureCollectionDto;
+import com.teillet.territoire.enums.HullDetail;
 import com.teillet.territoire.model.Block;
-import com.teillet.territoire.model.Territory;
 import org.geotools.api.feature.simple.SimpleFeature;
 import org.geotools.api.feature.simple.SimpleFeatureType;
 
@@ -12,35 +13,35 @@ import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
 import org.geotools.geojson.feature.FeatureJSON;
 import org.geotools.geojson.geom.GeometryJSON;
 import org.locationtech.jts.geom.*;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 public class GeoJsonUtils {
 
-	private static final int DECIMAL_PRECISION = 6;
+	// mètres par degré de latitude (et de longitude à l'équateur) : projection locale des pâtés à simplifier
+	private static final double METERS_PER_DEGREE = 111_320d;
 	public static final String BLOCK = "BLOCK";
 	public static final String CONCAVE_HULL = "CONCAVE_HULL";
 
+	// thread-safe : partagée par toutes les conversions plutôt que recréée pour chaque pâté
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
 
-	public static String convertToGeoJSON(List<Territory> territories) throws IOException {
-		// Définir le type de feature
-		SimpleFeatureType featureType = createTerritoryFeatureType();
-
-		// Créer une collection de features
-		ListFeatureCollection featureCollection = new ListFeatureCollection(featureType);
-		for (Territory territory : territories) {
-			featureCollection.add(createTerritoryFeature(featureType, territory));
-		}
 
-		// Convertir en GeoJSON
-		GeometryJSON geometryJSON = new GeometryJSON(DECIMAL_PRECISION);
-		FeatureJSON featureJSON = new FeatureJSON(geometryJSON);
-		return featureJSON.toString(featureCollection);
+	public static String convertToGeoJSON(List<Block> blocks, MultiPolygon concaveHull) throws IOException {
+		return convertToGeoJSON(blocks, concaveHull, HullDetail.FULL);
 	}
 
-	public static String convertToGeoJSON(List<Block> blocks, MultiPolygon concaveHull) throws IOException {
+	/**
+	 * Idem, au niveau de détail demandé : l'enveloppe fournie est déjà la variante simplifiée correspondante,
+	 * les pâtés sont simplifiés ici (sans changement de topologie) et les coordonnées arrondies en conséquence.
+	 */
+	public static String convertToGeoJSON(List<Block> blocks, MultiPolygon concaveHull, HullDetail detail) throws IOException {
 		// Définir le type de feature
 		SimpleFeatureType featureType = createPolygonFeatureType();
 		SimpleFeatureType featureTypeMultiPolygon = createMultiPolygonFeatureType();
@@ -48,7 +49,7 @@ public class GeoJsonUtils {
 		// Créer une collection de features
 		ListFeatureCollection featureCollection = new ListFeatureCollection(featureType);
 		for (Block block : blocks) {
-			featureCollection.add(createPolygonFeature(featureType, block.getBlock(), block.getId().toString()));
+			featureCollection.add(createPolygonFeature(featureType, simplifyBlock(block.getBlock(), detail), block.getId().toString()));
 		}
 
 		if (concaveHull != null) {
@@ -56,25 +57,28 @@ public class GeoJsonUtils {
 		}
 
 		// Convertir en GeoJSON
-		GeometryJSON geometryJSON = new GeometryJSON(DECIMAL_PRECISION);
+		GeometryJSON geometryJSON = new GeometryJSON(detail.getDecimals());
 		return new FeatureJSON(geometryJSON).toString(featureCollection);
 	}
 
-	private static SimpleFeatureType createTerritoryFeatureType() {
-		SimpleFeatureTypeBuilder builder = new SimpleFeatureTypeBuilder();
-		builder.setName("Territory");
-		builder.add("id", String.class);
-		builder.add("name", String.class);
-		builder.add("status", String.class);
-		builder.add("city", String.class);
-		builder.add("lastVisitedOn", String.class);
-		builder.add("assignedTo", String.class);
-		builder.add("assignedOn", String.class);
-		builder.add("waitedFor", String.class);
-		builder.add("type", String.class);
-		builder.add("geometry", MultiPolygon.class);
-		builder.add("assignments", List.class);
-		return builder.buildFeatureType();
+	/**
+	 * Pâté simplifié sans changement de topologie à la tolérance du niveau de détail (inchangé en FULL).
+	 * La simplification se fait en mètres dans une projection équirectangulaire centrée sur le pâté
+	 * (degré de longitude raccourci du cosinus de la latitude, ~-33 % sous nos latitudes), exacte à cette échelle.
+	 */
+	public static Polygon simplifyBlock(Polygon polygon, HullDetail detail) {
+		double tolerance = detail.getToleranceMeters();
+		if (tolerance <= 0 || polygon == null || polygon.isEmpty()) return polygon;
+
+		Coordinate center = polygon.getEnvelopeInternal().centre();
+		double metersPerDegreeX = METERS_PER_DEGREE * Math.cos(Math.toRadians(center.y));
+		AffineTransformation toMeters = AffineTransformation.translationInstance(-center.x, -center.y)
+				.scale(metersPerDegreeX, METERS_PER_DEGREE);
+		AffineTransformation toDegrees = AffineTransformation.scaleInstance(1 / metersPerDegreeX, 1 / METERS_PER_DEGREE)
+				.translate(center.x, center.y);
+
+		Geometry simplified = TopologyPreservingSimplifier.simplify(toMeters.transform(polygon), tolerance);
+		return simplified instanceof Polygon p && !p.isEmpty() ? (Polygon) toDegrees.transform(p) : polygon;
 	}
 
 	private static SimpleFeatureType createPolygonFeatureType() {
@@ -94,22 +98,6 @@ public class GeoJsonUtils {
 		return builder.buildFeatureType();
 	}
 
-	private static SimpleFeature createTerritoryFeature(SimpleFeatureType featureType, Territory territory) {
-		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
-		featureBuilder.add(territory.getId().toString());
-		featureBuilder.add(territory.getName());
-		featureBuilder.add(territory.getStatus().name());
-		featureBuilder.add(territory.getCity().getName());
-		featureBuilder.add(TerritoryUtils.getLastVisitedOn(territory));
-		featureBuilder.add(TerritoryUtils.getAssignedTo(territory));
-		featureBuilder.add(TerritoryUtils.getAssignedOn(territory));
-		featureBuilder.add(TerritoryUtils.getWaitedFor(territory));
-		featureBuilder.add(territory.getType());
-		featureBuilder.add(territory.getConcaveHull());
-		featureBuilder.add(territory.getAssignments());
-		return featureBuilder.buildFeature(null);
-	}
-
 	private static SimpleFeature createMultiPolygonFeature(SimpleFeatureType featureType, MultiPolygon geom) {
 		SimpleFeatureBuilder featureBuilder = new SimpleFeatureBuilder(featureType);
 		featureBuilder.add(null);
@@ -127,8 +115,6 @@ public class GeoJsonUtils {
 	}
 
 	public static Polygon convertGeoJsonToPolygon(BlockDto blockDTO) {
-		final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
-
 		if (blockDTO.getCoordinates() == null || blockDTO.getCoordinates().isEmpty()) {
 			throw new IllegalArgumentException("Le GeoJSON est vide ou invalide.");
 		}
@@ -147,6 +133,39 @@ public class GeoJsonUtils {
 		// Conversion en tableau pour JTS
 		Coordinate[] coordinates = coordinateList.toArray(new Coordinate[0]);
 
-		return geometryFactory.createPolygon(coordinates);
+		return GEOMETRY_FACTORY.createPolygon(coordinates);
+	}
+
+	/**
+	 * Convertit et valide tous les pâtés d'une FeatureCollection ; la première géométrie invalide
+	 * fait échouer l'ensemble (aucun pâté ne doit être inséré à moitié).
+	 */
+	public static List<Polygon> convertFeatureCollectionToPolygons(BlockFeatureCollectionDto collection) {
+		if (collection == null || collection.getFeatures() == null || collection.getFeatures().isEmpty()) {
+			throw new IllegalArgumentException("La FeatureCollection est vide.");
+		}
+
+		List<Polygon> polygons = new ArrayList<>(collection.getFeatures().size());
+		for (int i = 0; i < collection.getFeatures().size(); i++) {
+			BlockDto geometry = collection.getFeatures().get(i).getGeometry();
+			if (geometry == null) {
+				throw new IllegalArgumentException("Feature " + i + " : géométrie absente.");
+			}
+			if (geometry.getType() != null && !"Polygon".equals(geometry.getType())) {
+				throw new IllegalArgumentException("Feature " + i + " : type " + geometry.getType() + " non supporté, Polygon attendu.");
+			}
+
+			Polygon polygon;
+			try {
+				polygon = convertGeoJsonToPolygon(geometry);
+			} catch (IllegalArgumentException | IndexOutOfBoundsException | NoSuchElementException e) {
+				throw new IllegalArgumentException("Feature " + i + " : " + e.getMessage(), e);
+			}
+			if (!polygon.isValid()) {
+				throw new IllegalArgumentException("Feature " + i + " : polygone invalide (auto-intersection ?).");
+			}
+			polygons.add(polygon);
+		}
+		return polygons;
 	}
 }
@@ -0,0 +1,75 @@
+package com.teillet.territoire.utils;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.quadtree.Quadtree;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Placement des étiquettes sans chevauchement : les étiquettes sont traitées par priorité décroissante,
+ * chacune essaie quelques positions autour de son ancre et est abandonnée si toutes entrent en collision
+ * avec une étiquette déjà placée. Les boîtes placées sont indexées (quadtree, insertions au fil de l'eau)
+ * pour que chaque test de collision reste local.
+ */
+public final class LabelPlacer {
+    private LabelPlacer() {}
+
+    private static final int PAD_X = 4;
+    private static final int PAD_BOTTOM = 6;
+
+    /**
+     * Étiquette à placer : ancre en pixels (point intérieur de la forme), priorité (ex. surface)
+     * et zone dans laquelle le centre d'une position décalée doit rester (null = pas de contrainte).
+     */
+    public record Candidate(String text, int x, int y, double priority, Shape area) {}
+
+    /** Étiquette placée : texte dessiné à (x, y) (ligne de base), fond arrondi sur {@code box} */
+    public record PlacedLabel(String text, int x, int y, Rectangle box) {}
+
+    public static List<PlacedLabel> place(List<Candidate> candidates, FontMetrics fm) {
+        List<Candidate> ordered = new ArrayList<>(candidates);
+        ordered.sort(Comparator.comparingDouble(Candidate::priority).reversed());
+
+        int h = fm.getAscent();
+        Quadtree index = new Quadtree();
+        List<PlacedLabel> placed = new ArrayList<>(ordered.size());
+
+        for (Candidate c : ordered) {
+            String text = c.text() == null ? "" : c.text();
+            int w = fm.stringWidth(text);
+
+            // centre, puis dessus / dessous / gauche / droite
+            int dx = w / 2 + PAD_X, dy = h + PAD_BOTTOM;
+            int[][] offsets = {{0, 0}, {0, -dy}, {0, dy}, {-dx, 0}, {dx, 0}};
+
+            for (int[] o : offsets) {
+                int x = c.x() + o[0], y = c.y() + o[1];
+                Rectangle box = new Rectangle(x - w / 2 - PAD_X, y - h, w + 2 * PAD_X, h + PAD_BOTTOM);
+
+                boolean shifted = o[0] != 0 || o[1] != 0;
+                if (shifted && c.area() != null && !c.area().contains(box.getCenterX(), box.getCenterY())) continue;
+                if (collides(index, box)) continue;
+
+                PlacedLabel label = new PlacedLabel(text, x - w / 2, y, box);
+                index.insert(envelope(box), label);
+                placed.add(label);
+                break;
+            }
+        }
+        return placed;
+    }
+
+    private static boolean collides(Quadtree index, Rectangle box) {
+        for (Object o : index.query(envelope(box))) {
+            if (((PlacedLabel) o).box().intersects(box)) return true;
+        }
+        return false;
+    }
+
+    private static Envelope envelope(Rectangle r) {
+        return new Envelope(r.getMinX(), r.getMaxX(), r.getMinY(), r.getMaxY());
+    }
+}
@@ -10,12 +10,24 @@ public final class MapMath {
     // IGN WMTS PM constants
     public static final double ORIGIN_SHIFT = 20037508.342789244; // meters
     public static final int TILE_SIZE = 256;
+    public static final int MAX_ZOOM = 19;
 
     /** meters/pixel at zoom z */
     public static double resolution(int z) {
         return (2 * ORIGIN_SHIFT) / (TILE_SIZE * (1 << z));
     }
 
+    /**
+     * Plus petit zoom dont la résolution est au moins aussi fine que {@code metersPerPixel} (sortie) :
+     * les tuiles sont réduites d'un facteur 1 à 2 au plus, jamais agrandies ni téléchargées pour rien.
+     */
+    public static int optimalZoom(double metersPerPixel) {
+        for (int z = 0; z < MAX_ZOOM; z++) {
+            if (resolution(z) <= metersPerPixel) return z;
+        }
+        return MAX_ZOOM;
+    }
+
     /** EPSG:4326 lon -> tile X */
     public static int lon2tileX(double lonDeg, int z) {
         double mx = Math.toRadians(lonDeg) * 6378137.0;
@@ -31,6 +43,16 @@ public final class MapMath {
         return (int) Math.floor((ORIGIN_SHIFT - my) / (TILE_SIZE * res));
     }
 
+    /** EPSG:3857 x (meters) -> tile X */
+    public static int meterX2tileX(double mx, int z) {
+        return (int) Math.floor((mx + ORIGIN_SHIFT) / (TILE_SIZE * resolution(z)));
+    }
+
+    /** EPSG:3857 y (meters) -> tile Y */
+    public static int meterY2tileY(double my, int z) {
+        return (int) Math.floor((ORIGIN_SHIFT - my) / (TILE_SIZE * resolution(z)));
+    }
+
     /** Bounds of a tile (meters, EPSG:3857) */
     public static Envelope tileBoundsMeters(int x, int y, int z) {
         double res = resolution(z);
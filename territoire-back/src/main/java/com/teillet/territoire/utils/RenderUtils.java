@@ -1,11 +1,14 @@
 package com.teillet.territoire.utils;
 
+import com.teillet.territoire.record.TileImage;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Polygon;
 
 import java.awt.*;
 import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
 
 public final class RenderUtils {
     private RenderUtils() {}
@@ -33,8 +36,19 @@ public final class RenderUtils {
         path.closePath();
     }
 
+    /** Résolutions acceptées pour les exports : au-delà, une page A3 dépasserait la mémoire du rendu */
+    public static final int MIN_DPI = 72;
+    public static final int MAX_DPI = 600;
+
+    public static boolean isSupportedDpi(int dpi) {
+        return dpi >= MIN_DPI && dpi <= MAX_DPI;
+    }
+
     /** mm paper size to pixel dimension at dpi */
     public static Dimension paperToPixels(String paper, String orientation, int dpi) {
+        if (!isSupportedDpi(dpi)) {
+            throw new IllegalArgumentException("Résolution non supportée : " + dpi + " dpi (" + MIN_DPI + " à " + MAX_DPI + ")");
+        }
         int wmm, hmm;
         if ("A3".equalsIgnoreCase(paper)) { wmm = 420; hmm = 297; }
         else { wmm = 297; hmm = 210; } // A4 default
@@ -46,10 +60,35 @@ public final class RenderUtils {
         return new Dimension(pxW, pxH);
     }
 
-    public static byte[] emptyPng(int w, int h) throws Exception {
-        var img = new java.awt.image.BufferedImage(w, h, java.awt.image.BufferedImage.TYPE_INT_ARGB);
-        var baos = new java.io.ByteArrayOutputStream();
-        javax.imageio.ImageIO.write(img, "png", baos);
-        return baos.toByteArray();
+    /**
+     * Recadre la mosaïque de tuiles afin qu’elle corresponde EXACTEMENT à l’emprise demandée.
+     * On travaille en pixels de la mosaïque et en mètres (3857) pour être parfaitement cohérents.
+     */
+    public static TileImage cropToExtent(TileImage tiles, Envelope wanted) {
+        BufferedImage mosaic = tiles.img();
+        Envelope mosaicEnv = tiles.env3857();
+
+        // facteur px/mètre dans la mosaïque
+        double pxPerM_X = tiles.pixelWidth()  / mosaicEnv.getWidth();
+        double pxPerM_Y = tiles.pixelHeight() / mosaicEnv.getHeight();
+
+        // rectangle de crop en px par rapport au raster mosaïque
+        int cropX = (int) Math.round((wanted.getMinX() - mosaicEnv.getMinX()) * pxPerM_X);
+        int cropY = (int) Math.round((mosaicEnv.getMaxY() - wanted.getMaxY()) * pxPerM_Y);
+        int cropW = (int) Math.round(wanted.getWidth()  * pxPerM_X);
+        int cropH = (int) Math.round(wanted.getHeight() * pxPerM_Y);
+
+        // borne dans les limites
+        cropX = Math.max(0, Math.min(cropX, mosaic.getWidth()  - 1));
+        cropY = Math.max(0, Math.min(cropY, mosaic.getHeight() - 1));
+        if (cropX + cropW > mosaic.getWidth())  cropW = mosaic.getWidth()  - cropX;
+        if (cropY + cropH > mosaic.getHeight()) cropH = mosaic.getHeight() - cropY;
+
+        BufferedImage croppedImg = mosaic.getSubimage(cropX, cropY, Math.max(1, cropW), Math.max(1, cropH));
+
+        // IMPORTANT : l’emprise du raster recadré devient l’emprise voulue (wanted)
+        return new TileImage(croppedImg, new Envelope(
+                wanted.getMinX(), wanted.getMaxX(), wanted.getMinY(), wanted.getMaxY()
+        ), croppedImg.getWidth(), croppedImg.getHeight());
     }
-}
\ No newline at end of file
+}
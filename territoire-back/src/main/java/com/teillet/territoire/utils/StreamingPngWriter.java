@@ -0,0 +1,130 @@
+package com.teillet.territoire.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodeur PNG (RGBA 8 bits) alimenté bande par bande.
+ * Contrairement à ImageIO, l'image complète n'existe jamais en mémoire : chaque bande est filtrée,
+ * compressée et émise en chunks IDAT directement sur le flux de sortie.
+ */
+public class StreamingPngWriter implements AutoCloseable {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int IDAT_CHUNK_SIZE = 64 * 1024;
+    private static final byte FILTER_SUB = 1;
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final DeflaterOutputStream idat;
+
+    private final int[] argb;
+    private final byte[] raw;
+    private final byte[] filtered;
+    private int rowsWritten;
+
+    public StreamingPngWriter(OutputStream target, int width, int height) throws IOException {
+        this.out = new DataOutputStream(target);
+        this.width = width;
+        this.height = height;
+        this.argb = new int[width];
+        this.raw = new byte[width * 4];
+        this.filtered = new byte[width * 4 + 1];
+        this.idat = new DeflaterOutputStream(new IdatOutputStream(), deflater, IDAT_CHUNK_SIZE);
+
+        out.write(SIGNATURE);
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream(13);
+        DataOutputStream d = new DataOutputStream(ihdr);
+        d.writeInt(width);
+        d.writeInt(height);
+        d.writeByte(8);  // profondeur
+        d.writeByte(6);  // RGBA
+        d.writeByte(0);  // deflate
+        d.writeByte(0);  // filtrage adaptatif standard
+        d.writeByte(0);  // non entrelacé
+        writeChunk("IHDR", ihdr.toByteArray(), 13);
+    }
+
+    /** Écrit les {@code rows} premières lignes de {@code strip} (largeur identique à l'image finale) */
+    public void writeRows(BufferedImage strip, int rows) throws IOException {
+        if (rowsWritten + rows > height) {
+            throw new IllegalStateException("Trop de lignes pour l'image PNG (" + (rowsWritten + rows) + " > " + height + ")");
+        }
+        for (int r = 0; r < rows; r++) {
+            strip.getRGB(0, r, width, 1, argb, 0, width);
+            for (int i = 0, j = 0; i < width; i++) {
+                int p = argb[i];
+                raw[j++] = (byte) (p >> 16);
+                raw[j++] = (byte) (p >> 8);
+                raw[j++] = (byte) p;
+                raw[j++] = (byte) (p >>> 24);
+            }
+            // filtre "Sub" : bon compromis taux de compression / coût CPU pour des aplats cartographiques
+            filtered[0] = FILTER_SUB;
+            for (int i = 0; i < raw.length; i++) {
+                filtered[i + 1] = (byte) (raw[i] - (i >= 4 ? raw[i - 4] : 0));
+            }
+            idat.write(filtered);
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * Termine l'image si toutes les lignes ont été écrites. Un rendu interrompu (exception levée dans le
+     * try-with-resources) laisse le flux tronqué sans masquer l'exception d'origine ; dans tous les cas,
+     * la mémoire native du Deflater est libérée.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsWritten == height) {
+                idat.close();
+                writeChunk("IEND", new byte[0], 0);
+                out.flush();
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int len) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, len);
+
+        out.writeInt(len);
+        out.write(typeBytes);
+        out.write(data, 0, len);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /** Découpe le flux compressé en chunks IDAT ; ne ferme pas le flux cible */
+    private class IdatOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return;
+            if (off == 0) {
+                writeChunk("IDAT", b, len);
+            } else {
+                byte[] copy = new byte[len];
+                System.arraycopy(b, off, copy, 0, len);
+                writeChunk("IDAT", copy, len);
+            }
+        }
+    }
+}
@@ -1,50 +1,55 @@
 package com.teillet.territoire.utils;
 
-import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.model.Person;
 import com.teillet.territoire.model.Territory;
 
 import java.time.LocalDate;
-import java.util.Objects;
 
+/**
+ * Valeurs d'affichage du dernier retour et de l'attribution en cours, lues dans le résumé des attributions
+ * porté par le territoire (colonnes maintenues en SQL) : l'historique des attributions n'est pas chargé.
+ */
 public class TerritoryUtils {
 
 	public static final String NOUVEAU = "nouveau";
 	public static final String NA = "N/A";
 
 	public static String getLastVisitedOn(Territory territory) {
-		return territory.getAssignments()
-				.stream()
-				.map(Assignment::getReturnDate)
-				.filter(Objects::nonNull)
-				.max(LocalDate::compareTo)
-				.map(LocalDate::toString)
-				.orElse(NOUVEAU);
+		return lastVisitedOn(territory.getLastReturnDate());
 	}
 
 	public static String getAssignedTo(Territory territory) {
-		return territory.getAssignments()
-				.stream()
-				.filter(assignment -> assignment.getReturnDate() == null)
-				.map(assignment -> Utils.formatName(assignment.getPerson().getFirstName(), assignment.getPerson().getLastName()))
-				.findFirst()
-				.orElse(NA);
+		Person person = territory.getCurrentAssignee();
+		return assignedTo(person == null ? null : assigneeName(person.getFirstName(), person.getLastName()), territory.getCurrentAssignedOn());
 	}
 
 	public static String getAssignedOn(Territory territory) {
-		return territory.getAssignments()
-				.stream()
-				.filter(assignment -> assignment.getReturnDate() == null)
-				.map(assignment -> assignment.getAssignmentDate().toString())
-				.findFirst()
-				.orElse(NA);
+		return assignedOn(territory.getCurrentAssignedOn());
 	}
 
 	public static String getWaitedFor(Territory territory) {
-		return territory.getAssignments()
-				.stream()
-				.filter(assignment -> assignment.getReturnDate() == null)
-				.map(assignment -> assignment.getDueDate().toString())
-				.findFirst()
-				.orElse(NA);
+		return waitedFor(territory.getCurrentAssignedOn(), territory.getCurrentDueDate());
+	}
+
+	// Mêmes règles sur les colonnes lues directement (projections)
+
+	public static String lastVisitedOn(LocalDate lastReturnDate) {
+		return lastReturnDate != null ? lastReturnDate.toString() : NOUVEAU;
+	}
+
+	public static String assigneeName(String firstName, String lastName) {
+		return firstName == null && lastName == null ? null : Utils.formatName(firstName, lastName);
+	}
+
+	public static String assignedTo(String currentAssignee, LocalDate currentAssignedOn) {
+		return currentAssignedOn != null && currentAssignee != null ? currentAssignee : NA;
+	}
+
+	public static String assignedOn(LocalDate currentAssignedOn) {
+		return currentAssignedOn != null ? currentAssignedOn.toString() : NA;
+	}
+
+	public static String waitedFor(LocalDate currentAssignedOn, LocalDate currentDueDate) {
+		return currentAssignedOn != null && currentDueDate != null ? currentDueDate.toString() : NA;
 	}
 }
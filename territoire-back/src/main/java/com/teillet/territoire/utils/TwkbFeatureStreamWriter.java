@@ -0,0 +1,63 @@
+package com.teillet.territoire.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.locationtech.jts.geom.Geometry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Pendant binaire de {@link GeoJsonStreamWriter}, servi quand le client accepte {@link #MEDIA_TYPE}.
+ * Le flux est une suite d'enregistrements {@code [taille varint][propriétés JSON UTF-8][taille varint][géométrie TWKB]},
+ * une taille de géométrie nulle signifiant l'absence de géométrie : le client lit des coordonnées entières
+ * codées en delta au lieu d'analyser une chaîne GeoJSON imbriquée dans du JSON.
+ */
+public class TwkbFeatureStreamWriter implements AutoCloseable {
+
+    public static final String MEDIA_TYPE = "application/vnd.territoire.twkb";
+    private static final int FLUSH_EVERY = 100;
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+    private final int decimals;
+    private int written;
+
+    public TwkbFeatureStreamWriter(OutputStream out, ObjectMapper objectMapper, int decimals) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.decimals = decimals;
+    }
+
+    /** Propriétés écrites champ par champ, comme pour le GeoJSON */
+    public void writeFeature(Geometry geometry, GeoJsonStreamWriter.PropertiesWriter properties) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(256);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(json)) {
+            gen.writeStartObject();
+            properties.write(gen);
+            gen.writeEndObject();
+        }
+        writeRecord(json.toByteArray(), geometry);
+    }
+
+    /** Propriétés sérialisées depuis un objet quelconque (DTO, Map) */
+    public void writeFeature(Geometry geometry, Object properties) throws IOException {
+        writeRecord(objectMapper.writeValueAsBytes(properties), geometry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private void writeRecord(byte[] properties, Geometry geometry) throws IOException {
+        byte[] twkb = geometry == null || geometry.isEmpty() ? new byte[0] : TwkbWriter.write(geometry, decimals);
+        TwkbWriter.writeVarint(out, properties.length);
+        out.write(properties);
+        TwkbWriter.writeVarint(out, twkb.length);
+        out.write(twkb);
+
+        if (++written % FLUSH_EVERY == 1) out.flush();
+    }
+}
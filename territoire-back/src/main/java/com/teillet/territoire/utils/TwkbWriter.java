@@ -0,0 +1,105 @@
+package com.teillet.territoire.utils;
+
+import org.locationtech.jts.geom.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodeur TWKB (Tiny Well-Known Binary) : coordonnées arrondies à {@code decimals} décimales, stockées en entiers
+ * codés en delta par rapport au point précédent (zigzag + varint). Un pâté tient en quelques dizaines d'octets.
+ * Géométries supportées : Point, LineString, Polygon, MultiPolygon, sans bbox, taille ni liste d'identifiants.
+ */
+public final class TwkbWriter {
+
+    private static final int POINT = 1;
+    private static final int LINESTRING = 2;
+    private static final int POLYGON = 3;
+    private static final int MULTIPOLYGON = 6;
+    private static final int EMPTY = 0x10;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+    private final double scale;
+    private long lastX;
+    private long lastY;
+
+    private TwkbWriter(int decimals) {
+        this.scale = Math.pow(10, decimals);
+    }
+
+    public static byte[] write(Geometry geometry, int decimals) {
+        TwkbWriter writer = new TwkbWriter(decimals);
+        writer.writeGeometry(geometry, decimals);
+        return writer.out.toByteArray();
+    }
+
+    private void writeGeometry(Geometry g, int decimals) {
+        int type;
+        if (g instanceof Point) type = POINT;
+        else if (g instanceof LineString) type = LINESTRING;
+        else if (g instanceof Polygon) type = POLYGON;
+        else if (g instanceof MultiPolygon) type = MULTIPOLYGON;
+        else throw new IllegalArgumentException("Géométrie non supportée : " + g.getGeometryType());
+
+        // octet 1 : type (4 bits de poids faible) + précision en zigzag (4 bits de poids fort)
+        out.write((int) (zigzag(decimals) << 4) | type);
+        // octet 2 : métadonnées, seul le drapeau "vide" est utilisé
+        out.write(g.isEmpty() ? EMPTY : 0);
+        if (g.isEmpty()) return;
+
+        if (g instanceof Point p) {
+            writePoint(p.getCoordinateSequence(), 0);
+        } else if (g instanceof LineString l) {
+            writeSequence(l.getCoordinateSequence());
+        } else if (g instanceof Polygon p) {
+            writePolygon(p);
+        } else {
+            writeVarint(g.getNumGeometries());
+            for (int i = 0; i < g.getNumGeometries(); i++) writePolygon((Polygon) g.getGeometryN(i));
+        }
+    }
+
+    private void writePolygon(Polygon p) {
+        writeVarint(p.getNumInteriorRing() + 1L);
+        writeSequence(p.getExteriorRing().getCoordinateSequence());
+        for (int i = 0; i < p.getNumInteriorRing(); i++) writeSequence(p.getInteriorRingN(i).getCoordinateSequence());
+    }
+
+    private void writeSequence(CoordinateSequence seq) {
+        writeVarint(seq.size());
+        for (int i = 0; i < seq.size(); i++) writePoint(seq, i);
+    }
+
+    /** Le delta court sur toute la géométrie, d'un anneau (ou d'un polygone) au suivant */
+    private void writePoint(CoordinateSequence seq, int i) {
+        long x = Math.round(seq.getX(i) * scale);
+        long y = Math.round(seq.getY(i) * scale);
+        writeVarint(zigzag(x - lastX));
+        writeVarint(zigzag(y - lastY));
+        lastX = x;
+        lastY = y;
+    }
+
+    private void writeVarint(long value) {
+        try {
+            writeVarint(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // impossible sur un ByteArrayOutputStream
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /** Entier non signé en groupes de 7 bits, poids faible en premier (varint protobuf) */
+    static void writeVarint(OutputStream target, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            target.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.write((int) value);
+    }
+}
@@ -1,8 +1,12 @@
 package com.teillet.territoire.utils;
 
+import com.teillet.territoire.cache.OverviewCache;
 import com.teillet.territoire.config.IgnWmtsProperties;
 import com.teillet.territoire.record.TileImage;
+import com.teillet.territoire.record.TileKey;
+import com.teillet.territoire.tiles.TileSource;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Envelope;
 import org.springframework.stereotype.Component;
 
@@ -10,44 +14,72 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Locale;
-
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class WmtsClient {
 
     private final IgnWmtsProperties props;
+    private final TileSource tileSource;
+    private final OverviewCache overviewCache;
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_2)
-            .connectTimeout(Duration.ofSeconds(5))
-            .build();
+    private static final Color PLACEHOLDER = new Color(235, 235, 235);
 
     // ------------------- API publique -------------------
 
+    /**
+     * Comme {@link #fetchTiles3857}, pour les exports sur une grande emprise : la mosaïque est conservée dans le
+     * cache de vues d'ensemble, qui sert ensuite les emprises incluses et les zooms inférieurs sans téléchargement.
+     * Seules les mosaïques complètes (aucune tuile manquante) sont conservées ; l'indicateur est renvoyé à
+     * l'appelant pour qu'il n'ait pas à mettre en cache un rendu dont le fond contient des tuiles grises.
+     */
+    public Mosaic fetchOverview3857(Envelope env3857, int z) {
+        z = Math.max(0, Math.min(MapMath.MAX_ZOOM, z));
+        Optional<TileImage> cached = overviewCache.find(env3857, z);
+        if (cached.isPresent()) return new Mosaic(cached.get(), true);
+
+        Mosaic mosaic = assemble(to4326(env3857), z);
+        if (mosaic.complete()) overviewCache.put(z, mosaic.image());
+        return mosaic;
+    }
+
     /** Emprise en EPSG:3857 -> fetch, mosaïque alignée */
     public TileImage fetchTiles3857(Envelope env3857, int z) {
+        return fetchTiles(to4326(env3857), z);
+    }
+
+    private static Envelope to4326(Envelope env3857) {
         // convertir bbox 3857 -> bbox 4326 pour calculer les indices de tuiles
         double minLon = Math.toDegrees(env3857.getMinX() / 6378137.0);
         double maxLon = Math.toDegrees(env3857.getMaxX() / 6378137.0);
         double minLat = Math.toDegrees(2 * Math.atan(Math.exp(env3857.getMinY() / 6378137.0)) - Math.PI/2);
         double maxLat = Math.toDegrees(2 * Math.atan(Math.exp(env3857.getMaxY() / 6378137.0)) - Math.PI/2);
 
-        Envelope env4326 = new Envelope(minLon, maxLon, minLat, maxLat);
-        return fetchTiles(env4326, z);
+        return new Envelope(minLon, maxLon, minLat, maxLat);
     }
 
-    /** Emprise en EPSG:4326 -> assemble les tuiles WMTS alignées */
+    /**
+     * Emprise en EPSG:4326 -> assemble les tuiles WMTS alignées, lues depuis la {@link TileSource} active.
+     * Les tuiles sont chargées en parallèle (threads virtuels, plafond par hôte) et dessinées dès leur arrivée ;
+     * la mosaïque est pré-remplie en gris, donc une tuile lente ou absente à l'échéance garde simplement ce fond.
+     */
     public TileImage fetchTiles(Envelope env4326, int z) {
-        z = Math.max(0, Math.min(19, z));
+        return assemble(env4326, z).image();
+    }
+
+    private Mosaic assemble(Envelope env4326, int z) {
+        z = Math.max(0, Math.min(MapMath.MAX_ZOOM, z));
 
         int xMin = MapMath.lon2tileX(env4326.getMinX(), z);
         int xMax = MapMath.lon2tileX(env4326.getMaxX(), z);
@@ -68,50 +100,66 @@ public class WmtsClient {
         BufferedImage img = new BufferedImage(mosaicW, mosaicH, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g = img.createGraphics();
 
+        // fallback gris clair pour toute tuile qui n'arrivera pas
+        g.setColor(PLACEHOLDER);
+        g.fillRect(0, 0, mosaicW, mosaicH);
+
+        Instant deadline = Instant.now().plus(props.getMosaicDeadline());
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicInteger drawn = new AtomicInteger();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> pending = new ArrayList<>(cols * rows);
+
         for (int x = xMin; x <= xMax; x++) {
             for (int y = yMin; y <= yMax; y++) {
-                String url = String.format(Locale.ROOT,
-                        "%s?SERVICE=WMTS&REQUEST=GetTile&VERSION=1.0.0&" +
-                                "LAYER=%s&STYLE=%s&FORMAT=%s&" +
-                                "TILEMATRIXSET=PM&TILEMATRIX=%d&TILEROW=%d&TILECOL=%d",
-                        props.getWmtsBase(),
-                        enc(props.getLayer()), enc(props.getStyle()), enc(props.getFormat()),
-                        z, y, x
-                );
-
-                HttpRequest req = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("User-Agent", "Territoire-Exporter/1.0")
-                        .timeout(Duration.ofSeconds(8))
-                        .GET()
-                        .build();
-
-                try {
-                    HttpResponse<byte[]> resp = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
-                    if (resp.statusCode() == 200) {
-                        try (InputStream in = new ByteArrayInputStream(resp.body())) {
-                            BufferedImage tile = ImageIO.read(in);
-                            if (tile != null) {
-                                g.drawImage(tile, (x - xMin) * MapMath.TILE_SIZE, (y - yMin) * MapMath.TILE_SIZE, null);
-                                continue;
-                            }
-                        }
-                    }
-                    // fallback gris clair
-                    g.setColor(new Color(235,235,235));
-                    g.fillRect((x - xMin) * MapMath.TILE_SIZE, (y - yMin) * MapMath.TILE_SIZE, MapMath.TILE_SIZE, MapMath.TILE_SIZE);
-                } catch (Exception e) {
-                    g.setColor(new Color(235,235,235));
-                    g.fillRect((x - xMin) * MapMath.TILE_SIZE, (y - yMin) * MapMath.TILE_SIZE, MapMath.TILE_SIZE, MapMath.TILE_SIZE);
-                }
+                TileKey key = new TileKey(props.getLayer(), props.getStyle(), props.getFormat(), z, x, y);
+                int px = (x - xMin) * MapMath.TILE_SIZE;
+                int py = (y - yMin) * MapMath.TILE_SIZE;
+                pending.add(executor.submit(() -> drawTile(g, closed, drawn, key, px, py, deadline)));
+            }
+        }
+
+        try {
+            for (Future<?> f : pending) {
+                long remaining = Duration.between(Instant.now(), deadline).toMillis();
+                f.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            long missing = pending.stream().filter(f -> !f.isDone()).count();
+            log.warn("Échéance de la mosaïque atteinte (z={}, {} tuiles), {} tuile(s) restent en fond gris", z, pending.size(), missing);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Erreur inattendue lors de l'assemblage de la mosaïque : {}", e.getCause().getMessage());
+        } finally {
+            // les retardataires sont interrompus et ne peuvent plus dessiner une fois le Graphics libéré
+            executor.shutdownNow();
+            synchronized (g) {
+                closed.set(true);
+                g.dispose();
             }
         }
-        g.dispose();
 
-        return new TileImage(img, envTiles3857, mosaicW, mosaicH);
+        return new Mosaic(new TileImage(img, envTiles3857, mosaicW, mosaicH), drawn.get() == cols * rows);
     }
 
-    private static String enc(String s) {
-        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    private void drawTile(Graphics2D g, AtomicBoolean closed, AtomicInteger drawn, TileKey key, int px, int py, Instant deadline) {
+        byte[] body = tileSource.load(key, deadline);
+        if (body == null) return;
+
+        try (InputStream in = new ByteArrayInputStream(body)) {
+            BufferedImage tile = ImageIO.read(in);
+            if (tile == null) return;
+            synchronized (g) {
+                if (closed.get()) return;
+                g.drawImage(tile, px, py, null);
+                drawn.incrementAndGet();
+            }
+        } catch (IOException e) {
+            log.debug("Tuile {} : décodage impossible ({})", key, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+
+    /** Mosaïque assemblée ; {@code complete} est faux si une tuile au moins est restée en fond gris */
+    public record Mosaic(TileImage image, boolean complete) {}
+}
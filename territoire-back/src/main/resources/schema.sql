@@ -0,0 +1,85 @@
+-- Exécuté à chaque démarrage après la mise à jour du schéma par Hibernate (ddl-auto=update) :
+-- toutes les instructions doivent être idempotentes.
+
+-- Projections EPSG:3857 de l'enveloppe et de son point d'étiquette, maintenues en SQL par
+-- TerritoryRepository.updateConcaveHullTerritory et lues uniquement par les requêtes natives (exports, MVT) :
+-- non mappées sur l'entité, elles sont créées ici
+ALTER TABLE territory ADD COLUMN IF NOT EXISTS concave_hull_3857 geometry(MultiPolygon, 3857);
+ALTER TABLE territory ADD COLUMN IF NOT EXISTS label_point_3857 geometry(Point, 3857);
+
+-- Index spatiaux (GiST) : Hibernate ne sait créer que des index B-tree
+CREATE INDEX IF NOT EXISTS idx_territory_concave_hull ON territory USING GIST (concave_hull);
+CREATE INDEX IF NOT EXISTS idx_territory_concave_hull_3857 ON territory USING GIST (concave_hull_3857);
+CREATE INDEX IF NOT EXISTS idx_territory_label_point_3857 ON territory USING GIST (label_point_3857);
+
+-- Initialisation des projections EPSG:3857 pour les territoires antérieurs à ces colonnes
+UPDATE territory
+SET concave_hull_3857 = ST_Multi(ST_Transform(concave_hull, 3857)),
+    label_point_3857  = ST_PointOnSurface(ST_Transform(concave_hull, 3857))
+WHERE concave_hull IS NOT NULL
+  AND concave_hull_3857 IS NULL;
+
+-- Union des pâtés tamponnés de +7 m (Lambert 93) avant l'érosion de -8 m : permet de mettre à jour l'enveloppe
+-- par composante connexe à l'ajout / suppression d'un pâté. Utilisée uniquement en SQL, non mappée sur l'entité
+ALTER TABLE territory ADD COLUMN IF NOT EXISTS buffered_union geometry(MultiPolygon, 2154);
+
+-- Initialisation de l'union tamponnée (mises à jour incrémentales de l'enveloppe) pour les territoires existants
+UPDATE territory t
+SET buffered_union = (SELECT ST_Multi(ST_Union(ST_Buffer(ST_Transform(b.block, 2154), 7)))
+                      FROM block b
+                      WHERE b.territory_id = t.id)
+WHERE t.buffered_union IS NULL
+  AND EXISTS (SELECT 1 FROM block b WHERE b.territory_id = t.id);
+
+-- Initialisation des variantes simplifiées de l'enveloppe (cf. HullDetail) pour les territoires existants
+UPDATE territory
+SET concave_hull_high   = ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(ST_Transform(concave_hull, 2154), 2), 4326)),
+    concave_hull_medium = ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(ST_Transform(concave_hull, 2154), 8), 4326)),
+    concave_hull_low    = ST_Multi(ST_Transform(ST_SimplifyPreserveTopology(ST_Transform(concave_hull, 2154), 30), 4326))
+WHERE concave_hull IS NOT NULL
+  AND concave_hull_low IS NULL;
+
+-- Archive des attributions retirées en masse (TerritoryService.revokeAssignmentsBulk), conservée pour audit.
+-- Sans clé étrangère : l'archive survit à la suppression des territoires, personnes et campagnes.
+CREATE TABLE IF NOT EXISTS assignment_archive (
+    id              uuid PRIMARY KEY,
+    territory_id    uuid,
+    person_id       uuid,
+    campaign_id     uuid,
+    assignment_date date,
+    due_date        date,
+    return_date     date,
+    revoked_at      timestamp NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_assignment_archive_territory ON assignment_archive (territory_id);
+
+-- Tables de jointure des campagnes en sémantique d'ensemble : doublons éventuels supprimés,
+-- puis index unique (campaign_id, territory_id) servant aussi aux INSERT ... ON CONFLICT et DELETE ciblés.
+DELETE FROM campaign_territory a
+USING campaign_territory b
+WHERE a.ctid > b.ctid
+  AND a.campaign_id = b.campaign_id
+  AND a.territory_id = b.territory_id;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_campaign_territory_campaign_territory
+    ON campaign_territory (campaign_id, territory_id);
+
+DELETE FROM campaign_remaining_territory a
+USING campaign_remaining_territory b
+WHERE a.ctid > b.ctid
+  AND a.campaign_id = b.campaign_id
+  AND a.territory_id = b.territory_id;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_campaign_remaining_territory_campaign_territory
+    ON campaign_remaining_territory (campaign_id, territory_id);
+
+-- Compteurs de version des caches (DataVersionStore), partagés par toutes les instances : une séquence
+-- par compteur, nextval ne verrouille aucune ligne. Amorcées à l'heure courante en millisecondes à leur
+-- création : pas de collision avec les ETags émis auparavant.
+CREATE SEQUENCE IF NOT EXISTS data_version_map;
+CREATE SEQUENCE IF NOT EXISTS data_version_map_attributes;
+CREATE SEQUENCE IF NOT EXISTS data_version_campaigns;
+SELECT setval('data_version_map', (extract(epoch FROM clock_timestamp()) * 1000)::bigint)
+FROM data_version_map WHERE NOT is_called;
+SELECT setval('data_version_map_attributes', (extract(epoch FROM clock_timestamp()) * 1000)::bigint)
+FROM data_version_map_attributes WHERE NOT is_called;
+SELECT setval('data_version_campaigns', (extract(epoch FROM clock_timestamp()) * 1000)::bigint)
+FROM data_version_campaigns WHERE NOT is_called;
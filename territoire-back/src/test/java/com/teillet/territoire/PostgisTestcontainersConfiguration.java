@@ -0,0 +1,21 @@
+package com.teillet.territoire;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Base PostGIS jetable pour les tests d'intégration : les requêtes natives (ST_*, geometry) ne tournent pas sur H2.
+ * Le conteneur est partagé par tous les tests utilisant le même contexte Spring.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgisTestcontainersConfiguration {
+
+	@Bean
+	@ServiceConnection
+	PostgreSQLContainer<?> postgisContainer() {
+		return new PostgreSQLContainer<>(DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+	}
+}
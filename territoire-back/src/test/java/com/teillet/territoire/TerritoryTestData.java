@@ -0,0 +1,129 @@
+package com.teillet.territoire;
+
+import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.enums.TerritoryType;
+import com.teillet.territoire.model.AddressNotToDo;
+import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.model.Block;
+import com.teillet.territoire.model.Campaign;
+import com.teillet.territoire.model.City;
+import com.teillet.territoire.model.Person;
+import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.AddressNotToDoRepository;
+import com.teillet.territoire.repository.AssignmentRepository;
+import com.teillet.territoire.repository.BlockRepository;
+import com.teillet.territoire.repository.CampaignRepository;
+import com.teillet.territoire.repository.CityRepository;
+import com.teillet.territoire.repository.PersonRepository;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.service.ITerritoryService;
+import lombok.RequiredArgsConstructor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jeu de données des tests d'intégration : villes, territoires (deux pâtés voisins et une adresse à ne pas faire),
+ * personnes, attributions et campagnes, enregistrés par les repositories comme le ferait l'application.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class TerritoryTestData {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final CityRepository cityRepository;
+	private final TerritoryRepository territoryRepository;
+	private final BlockRepository blockRepository;
+	private final AddressNotToDoRepository addressNotToDoRepository;
+	private final PersonRepository personRepository;
+	private final AssignmentRepository assignmentRepository;
+	private final CampaignRepository campaignRepository;
+	private final ITerritoryService territoryService;
+
+	private int territoryCount;
+
+	/** Vide les tables métier (les tables de liaison et l'historique suivent par CASCADE) */
+	public void reset() {
+		jdbcTemplate.execute("TRUNCATE city, person, campaign, assignment_archive CASCADE");
+		territoryCount = 0;
+	}
+
+	public City city(String name) {
+		return cityRepository.save(City.builder()
+				.name(name)
+				.zipCode("95000")
+				.center(GEOMETRY_FACTORY.createPoint(new Coordinate(2.07, 49.04)))
+				.build());
+	}
+
+	public Person person(String firstName, String lastName) {
+		return personRepository.save(Person.builder().firstName(firstName).lastName(lastName).build());
+	}
+
+	/** Territoire de deux pâtés voisins, enveloppe calculée, décalé des précédents pour ne pas les chevaucher */
+	public Territory territory(City city) {
+		int index = territoryCount++;
+		Territory territory = territoryRepository.save(Territory.builder()
+				.name("T" + index)
+				.status(TerritoryStatus.AVAILABLE)
+				.type(TerritoryType.HOUSE)
+				.lastModifiedDate(LocalDate.now())
+				.city(city)
+				.build());
+		double x = 2.07 + index * 0.002;
+		blockRepository.saveAll(List.of(
+				Block.builder().block(square(x, 49.04)).territory(territory).build(),
+				Block.builder().block(square(x + 0.0004, 49.04)).territory(territory).build()));
+		addressNotToDoRepository.save(AddressNotToDo.builder()
+				.street("rue de la Gare")
+				.number(String.valueOf(index + 1))
+				.zipCode(city.getZipCode())
+				.city(city.getName())
+				.date(LocalDate.now())
+				.territory(territory)
+				.build());
+		territoryService.updateConcaveHull(territory.getId());
+		return territory;
+	}
+
+	public Assignment assignment(Territory territory, Person person, LocalDate assignedOn, LocalDate returnedOn) {
+		Assignment assignment = assignmentRepository.save(Assignment.builder()
+				.territory(territory)
+				.person(person)
+				.assignmentDate(assignedOn)
+				.dueDate(assignedOn.plusMonths(4))
+				.returnDate(returnedOn)
+				.build());
+		territoryService.refreshAssignmentSummaries(List.of(territory.getId()));
+		return assignment;
+	}
+
+	public Campaign campaign(String name, Set<Territory> territories, Set<Territory> remainingTerritories) {
+		return campaignRepository.save(Campaign.builder()
+				.name(name)
+				.startDate(LocalDate.now().minusMonths(2))
+				.territories(new HashSet<>(territories))
+				.remainingTerritories(new HashSet<>(remainingTerritories))
+				.assignments(new ArrayList<>())
+				.build());
+	}
+
+	/** Carré d'environ 25 m de côté */
+	private static Polygon square(double x, double y) {
+		double d = 0.0003;
+		return GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+				new Coordinate(x, y), new Coordinate(x + d, y), new Coordinate(x + d, y + d),
+				new Coordinate(x, y + d), new Coordinate(x, y)});
+	}
+}
@@ -0,0 +1,37 @@
+package com.teillet.territoire.enums;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HullDetailTest {
+
+	@Test
+	void zoomSelectsLevelUnderOnePixel() {
+		assertThat(HullDetail.forZoom(10)).isEqualTo(HullDetail.LOW);
+		assertThat(HullDetail.forZoom(12)).isEqualTo(HullDetail.LOW);
+		assertThat(HullDetail.forZoom(13)).isEqualTo(HullDetail.MEDIUM);
+		assertThat(HullDetail.forZoom(14)).isEqualTo(HullDetail.MEDIUM);
+		assertThat(HullDetail.forZoom(15)).isEqualTo(HullDetail.HIGH);
+		assertThat(HullDetail.forZoom(16)).isEqualTo(HullDetail.HIGH);
+		assertThat(HullDetail.forZoom(17)).isEqualTo(HullDetail.FULL);
+		assertThat(HullDetail.forZoom(20)).isEqualTo(HullDetail.FULL);
+	}
+
+	@Test
+	void toleranceSelectsMostSimplifiedLevelWithinIt() {
+		assertThat(HullDetail.forTolerance(0)).isEqualTo(HullDetail.FULL);
+		assertThat(HullDetail.forTolerance(1.9)).isEqualTo(HullDetail.FULL);
+		assertThat(HullDetail.forTolerance(2)).isEqualTo(HullDetail.HIGH);
+		assertThat(HullDetail.forTolerance(10)).isEqualTo(HullDetail.MEDIUM);
+		assertThat(HullDetail.forTolerance(30)).isEqualTo(HullDetail.LOW);
+		assertThat(HullDetail.forTolerance(500)).isEqualTo(HullDetail.LOW);
+	}
+
+	@Test
+	void zoomTakesPrecedenceOverTolerance() {
+		assertThat(HullDetail.of(null, null)).isEqualTo(HullDetail.FULL);
+		assertThat(HullDetail.of(null, 8.0)).isEqualTo(HullDetail.MEDIUM);
+		assertThat(HullDetail.of(16, 100.0)).isEqualTo(HullDetail.HIGH);
+	}
+}
@@ -0,0 +1,120 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.PostgisTestcontainersConfiguration;
+import com.teillet.territoire.TerritoryTestData;
+import com.teillet.territoire.dto.CampaignDto;
+import com.teillet.territoire.model.Assignment;
+import com.teillet.territoire.model.Campaign;
+import com.teillet.territoire.model.City;
+import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.AssignmentRepository;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.service.ICampaignService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clôture de campagne : une attribution rendue par territoire utilisé, insérées par une seule instruction
+ * INSERT ... SELECT, quel que soit le nombre de territoires de la campagne.
+ */
+@SpringBootTest
+@Import({PostgisTestcontainersConfiguration.class, TerritoryTestData.class})
+@TestPropertySource(properties = {
+		"JWT_SECRET_KEY=aaaaaaaaaaaaaaaaaabbbbbbbbbbbbbbbbbbbbbbbbbxcccccccccccccc",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CloseCampaignTest {
+
+	@Autowired
+	private ICampaignService campaignService;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private TerritoryRepository territoryRepository;
+
+	@Autowired
+	private TerritoryTestData testData;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private City city;
+
+	@BeforeEach
+	void setUp() {
+		testData.reset();
+		city = testData.city("Cergy");
+	}
+
+	@Test
+	void createsOneReturnedAssignmentPerUsedTerritory() {
+		Campaign campaign = campaign(5, 2);
+
+		CampaignDto closed = campaignService.closeCampaign(campaign.getId());
+
+		assertThat(closed.isClosed()).isTrue();
+		List<Assignment> assignments = assignmentRepository.findAll();
+		assertThat(assignments).hasSize(3).allSatisfy(assignment -> {
+			assertThat(assignment.getCampaign().getId()).isEqualTo(campaign.getId());
+			assertThat(assignment.getPerson()).isNull();
+			assertThat(assignment.getAssignmentDate()).isEqualTo(campaign.getStartDate());
+			assertThat(assignment.getReturnDate()).isEqualTo(LocalDate.now());
+		});
+
+		Set<UUID> remaining = campaign.getRemainingTerritories().stream().map(Territory::getId).collect(Collectors.toSet());
+		assertThat(assignments).noneSatisfy(assignment -> assertThat(remaining).contains(assignment.getTerritory().getId()));
+		for (Assignment assignment : assignments) {
+			// résumé des attributions mis à jour avec la clôture
+			assertThat(territoryRepository.findById(assignment.getTerritory().getId()).orElseThrow().getLastReturnDate())
+					.isEqualTo(LocalDate.now());
+		}
+	}
+
+	@Test
+	void statementCountDoesNotDependOnTerritoryCount() {
+		Campaign small = campaign(2, 1);
+		Campaign large = campaign(16, 4);
+
+		long smallCount = countStatements(small);
+		long largeCount = countStatements(large);
+
+		assertThat(largeCount).isEqualTo(smallCount);
+		assertThat(assignmentRepository.count()).isEqualTo(1 + 12);
+	}
+
+	private Campaign campaign(int territoryCount, int remainingCount) {
+		Set<Territory> territories = new HashSet<>();
+		Set<Territory> remaining = new HashSet<>();
+		for (int i = 0; i < territoryCount; i++) {
+			Territory territory = testData.territory(city);
+			territories.add(territory);
+			if (i < remainingCount) remaining.add(territory);
+		}
+		return testData.campaign("Campagne de " + territoryCount, territories, remaining);
+	}
+
+	private long countStatements(Campaign campaign) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		campaignService.closeCampaign(campaign.getId());
+		return statistics.getPrepareStatementCount();
+	}
+}
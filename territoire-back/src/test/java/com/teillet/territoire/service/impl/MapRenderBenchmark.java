@@ -0,0 +1,161 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.cache.LabelLayoutCache;
+import com.teillet.territoire.cache.MapDataVersion;
+import com.teillet.territoire.cache.MapExportCache;
+import com.teillet.territoire.record.MapRenderPool;
+import com.teillet.territoire.record.TileImage;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.repository.projection.Bbox3857;
+import com.teillet.territoire.repository.projection.TerritoryHullRow;
+import com.teillet.territoire.utils.WmtsClient;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKBWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Accélération du rendu des exports PNG (décodage WKB, formes Java2D, bandes, encodage) selon la taille
+ * du pool de rendu, de 1 cœur au nombre de cœurs disponibles. Base et fond de carte sont simulés :
+ * seul le travail CPU est mesuré. Lancer {@link #main(String[])} (hors tests unitaires).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapRenderBenchmark {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+	// emprise d'une agglomération en EPSG:3857 (~10 km)
+	private static final Envelope EXTENT = new Envelope(225_000, 235_000, 6_280_000, 6_290_000);
+
+	@Param({"1"})
+	public int parallelism;
+
+	@Param({"3000"})
+	public int territories;
+
+	@Param({"300"})
+	public int dpi;
+
+	private ForkJoinPool pool;
+	private TerritoryMapService service;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<TerritoryHullRow> rows = hullRows(territories);
+
+		TerritoryRepository territoryRepo = mock(TerritoryRepository.class);
+		when(territoryRepo.findAllProjected3857()).thenReturn(rows);
+		when(territoryRepo.findBbox3857()).thenReturn(bbox(EXTENT));
+
+		Envelope basemapExtent = new Envelope(EXTENT);
+		basemapExtent.expandBy(EXTENT.getWidth() * 0.1);
+		WmtsClient wmtsClient = mock(WmtsClient.class);
+		when(wmtsClient.fetchOverview3857(any(), anyInt())).thenReturn(new WmtsClient.Mosaic(
+				new TileImage(new BufferedImage(4096, 4096, BufferedImage.TYPE_INT_RGB), basemapExtent, 4096, 4096), true));
+
+		pool = new ForkJoinPool(parallelism);
+		// cache d'étiquettes de taille nulle : le placement est refait à chaque rendu
+		service = new TerritoryMapService(territoryRepo, wmtsClient, mock(MapExportCache.class), mock(MapDataVersion.class),
+				new MapRenderPool(pool), new LabelLayoutCache(0));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public boolean renderA3WithLabels() throws Exception {
+		return service.writePng("A3", "landscape", dpi, null, 18, true, OutputStream.nullOutputStream());
+	}
+
+	public static void main(String[] args) throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		String[] parallelisms = IntStream.iterate(1, n -> n <= cores, n -> n * 2)
+				.mapToObj(String::valueOf)
+				.toArray(String[]::new);
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(MapRenderBenchmark.class.getSimpleName())
+				.param("parallelism", parallelisms)
+				.build()).run();
+
+		double baseline = Double.NaN;
+		for (RunResult result : results) {
+			String parallelism = result.getParams().getParam("parallelism");
+			double millis = result.getPrimaryResult().getScore();
+			if ("1".equals(parallelism)) baseline = millis;
+			System.out.printf("%s cœur(s) : %.1f ms, accélération x%.2f%n", parallelism, millis, baseline / millis);
+		}
+	}
+
+	/** Territoires aléatoires (polygones de 16 à 64 sommets) répartis sur l'emprise, noms et couleurs de ville */
+	private static List<TerritoryHullRow> hullRows(int count) {
+		Random random = new Random(42);
+		WKBWriter writer = new WKBWriter();
+		List<TerritoryHullRow> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Coordinate center = new Coordinate(
+					EXTENT.getMinX() + random.nextDouble() * EXTENT.getWidth(),
+					EXTENT.getMinY() + random.nextDouble() * EXTENT.getHeight());
+			Geometry hull = GEOMETRY_FACTORY.createMultiPolygon(new Polygon[]{
+					(Polygon) GEOMETRY_FACTORY.createPoint(center)
+							.buffer(40 + random.nextDouble() * 120, 4 + random.nextInt(13))});
+			rows.add(new HullRow("T" + i, writer.write(hull), writer.write(hull.getInteriorPoint()),
+					i % 2 == 0 ? "#4E79A7" : "#F28E2B"));
+		}
+		return rows;
+	}
+
+	private static Bbox3857 bbox(Envelope envelope) {
+		return new Bbox3857() {
+			@Override public Double getMinx() { return envelope.getMinX(); }
+			@Override public Double getMiny() { return envelope.getMinY(); }
+			@Override public Double getMaxx() { return envelope.getMaxX(); }
+			@Override public Double getMaxy() { return envelope.getMaxY(); }
+		};
+	}
+
+	private record HullRow(String name, byte[] hullWkb, byte[] labelWkb, String cityColorHex) implements TerritoryHullRow {
+		@Override public String getName() { return name; }
+		@Override public byte[] getHullWkb() { return hullWkb; }
+		@Override public byte[] getLabelWkb() { return labelWkb; }
+		@Override public String getCityColorHex() { return cityColorHex; }
+	}
+}
@@ -0,0 +1,124 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.PostgisTestcontainersConfiguration;
+import com.teillet.territoire.TerritoryTestData;
+import com.teillet.territoire.enums.TerritoryStatus;
+import com.teillet.territoire.model.City;
+import com.teillet.territoire.model.Person;
+import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.repository.AssignmentRepository;
+import com.teillet.territoire.repository.TerritoryRepository;
+import com.teillet.territoire.service.ITerritoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retrait en masse des attributions : archivage + suppression puis remise à zéro des territoires,
+ * en deux instructions quel que soit le nombre d'attributions.
+ */
+@SpringBootTest
+@Import({PostgisTestcontainersConfiguration.class, TerritoryTestData.class})
+@TestPropertySource(properties = {
+		"JWT_SECRET_KEY=aaaaaaaaaaaaaaaaaabbbbbbbbbbbbbbbbbbbbbbbbbxcccccccccccccc",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RevokeAssignmentsBulkTest {
+
+	@Autowired
+	private ITerritoryService territoryService;
+
+	@Autowired
+	private TerritoryRepository territoryRepository;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private TerritoryTestData testData;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Person person;
+
+	@BeforeEach
+	void setUp() {
+		testData.reset();
+		person = testData.person("Marie", "Martin");
+	}
+
+	@Test
+	void archivesAndResetsOnlyTheRequestedCity() {
+		List<Territory> cergy = assignedTerritories(testData.city("Cergy"), 3);
+		List<Territory> pontoise = assignedTerritories(testData.city("Pontoise"), 2);
+
+		territoryService.revokeAssignmentsBulk("Cergy");
+
+		assertThat(assignmentRepository.findAll())
+				.allSatisfy(assignment -> assertThat(assignment.getTerritory().getCity().getName()).isEqualTo("Pontoise"))
+				.hasSize(4);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM assignment_archive", Long.class)).isEqualTo(6);
+
+		for (Territory territory : cergy) {
+			Territory reset = territoryRepository.findById(territory.getId()).orElseThrow();
+			assertThat(reset.getStatus()).isEqualTo(TerritoryStatus.AVAILABLE);
+			assertThat(reset.getLastReturnDate()).isNull();
+			assertThat(reset.getCurrentAssignedOn()).isNull();
+			assertThat(reset.getCurrentDueDate()).isNull();
+		}
+		for (Territory territory : pontoise) {
+			Territory kept = territoryRepository.findById(territory.getId()).orElseThrow();
+			assertThat(kept.getStatus()).isEqualTo(TerritoryStatus.ASSIGNED);
+			assertThat(kept.getCurrentAssignedOn()).isNotNull();
+		}
+	}
+
+	@Test
+	void statementCountDoesNotDependOnAssignmentCount() {
+		assignedTerritories(testData.city("Cergy"), 1);
+		assignedTerritories(testData.city("Pontoise"), 15);
+
+		long oneTerritory = countStatements("Cergy");
+		long manyTerritories = countStatements("Pontoise");
+
+		assertThat(manyTerritories).isEqualTo(oneTerritory).isEqualTo(2);
+		assertThat(assignmentRepository.count()).isZero();
+	}
+
+	/** Territoires attribués, avec chacun une attribution rendue et une en cours */
+	private List<Territory> assignedTerritories(City city, int count) {
+		List<Territory> territories = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Territory territory = testData.territory(city);
+			testData.assignment(territory, person, LocalDate.now().minusMonths(6), LocalDate.now().minusMonths(3));
+			testData.assignment(territory, person, LocalDate.now().minusWeeks(1), null);
+			jdbcTemplate.update("UPDATE territory SET status = 'ASSIGNED' WHERE id = ?", territory.getId());
+			territories.add(territory);
+		}
+		return territories;
+	}
+
+	private long countStatements(String city) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		territoryService.revokeAssignmentsBulk(city);
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,99 @@
+package com.teillet.territoire.service.impl;
+
+import com.teillet.territoire.PostgisTestcontainersConfiguration;
+import com.teillet.territoire.TerritoryTestData;
+import com.teillet.territoire.dto.TerritoryDto;
+import com.teillet.territoire.model.City;
+import com.teillet.territoire.model.Person;
+import com.teillet.territoire.model.Territory;
+import com.teillet.territoire.service.ITerritoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La liste des territoires est construite par un nombre fixe de requêtes ensemblistes :
+ * le nombre d'instructions SQL ne doit pas dépendre du nombre de territoires.
+ */
+@SpringBootTest
+@Import({PostgisTestcontainersConfiguration.class, TerritoryTestData.class})
+@TestPropertySource(properties = {
+		"JWT_SECRET_KEY=aaaaaaaaaaaaaaaaaabbbbbbbbbbbbbbbbbbbbbbbbbxcccccccccccccc",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TerritoryListQueryCountTest {
+
+	@Autowired
+	private ITerritoryService territoryService;
+
+	@Autowired
+	private TerritoryTestData testData;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private City city;
+	private Person person;
+
+	@BeforeEach
+	void setUp() {
+		testData.reset();
+		city = testData.city("Cergy");
+		person = testData.person("jean", "DUPONT");
+	}
+
+	@Test
+	void statementCountDoesNotDependOnTerritoryCount() {
+		addTerritories(1);
+		long withOne = countStatements();
+
+		addTerritories(24);
+		long withMany = countStatements();
+
+		assertThat(withMany).isEqualTo(withOne);
+	}
+
+	@Test
+	void listCarriesAssignmentSummaryAndGeometries() {
+		addTerritories(3);
+
+		List<TerritoryDto> territories = territoryService.getAllTerritoryDtos();
+
+		assertThat(territories).hasSize(3);
+		assertThat(territories).allSatisfy(dto -> {
+			assertThat(dto.getAssignedTo()).isEqualTo("Jean Dupont");
+			assertThat(dto.getAssignments()).hasSize(2);
+			assertThat(dto.getAddressesNotToDo()).hasSize(1);
+			assertThat(dto.getGeojson()).isNotBlank();
+		});
+	}
+
+	/** Territoires complets : pâtés, adresse, attribution rendue, attribution en cours et campagne */
+	private void addTerritories(int count) {
+		for (int i = 0; i < count; i++) {
+			Territory territory = testData.territory(city);
+			testData.assignment(territory, person, LocalDate.now().minusMonths(6), LocalDate.now().minusMonths(3));
+			testData.assignment(territory, person, LocalDate.now().minusWeeks(2), null);
+			testData.campaign("Campagne " + territory.getName(), Set.of(territory), Set.of());
+		}
+	}
+
+	private long countStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertThat(territoryService.getAllTerritoryDtos()).isNotEmpty();
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,68 @@
+package com.teillet.territoire.utils;
+
+import com.teillet.territoire.enums.HullDetail;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class GeoJsonUtilsTest {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+	private static final double LATITUDE = 48.0;
+	private static final double LONGITUDE = 2.0;
+
+	@Test
+	void fullDetailKeepsBlockUnchanged() {
+		Polygon block = squareWithEastBump(3);
+		assertThat(GeoJsonUtils.simplifyBlock(block, HullDetail.FULL)).isSameAs(block);
+	}
+
+	@Test
+	void eastWestToleranceIsMeasuredInMetersAtTheBlockLatitude() {
+		// décrochement de 6 m vers l'est : sous la tolérance de 8 m, alors qu'il dépasse 8 m "équatoriaux" en degrés
+		assertThat(GeoJsonUtils.simplifyBlock(squareWithEastBump(6), HullDetail.MEDIUM).getNumPoints()).isEqualTo(5);
+		assertThat(GeoJsonUtils.simplifyBlock(squareWithEastBump(10), HullDetail.MEDIUM).getNumPoints()).isEqualTo(6);
+	}
+
+	@Test
+	void northSouthToleranceIsMeasuredInMeters() {
+		assertThat(GeoJsonUtils.simplifyBlock(squareWithNorthBump(6), HullDetail.MEDIUM).getNumPoints()).isEqualTo(5);
+		assertThat(GeoJsonUtils.simplifyBlock(squareWithNorthBump(10), HullDetail.MEDIUM).getNumPoints()).isEqualTo(6);
+	}
+
+	@Test
+	void simplifiedBlockStaysInPlace() {
+		Polygon block = squareWithEastBump(6);
+		Polygon simplified = GeoJsonUtils.simplifyBlock(block, HullDetail.LOW);
+
+		assertThat(simplified.getSRID()).isEqualTo(4326);
+		assertThat(simplified.getEnvelopeInternal().getMinX()).isCloseTo(LONGITUDE, offset(1e-9));
+		assertThat(simplified.getEnvelopeInternal().getMinY()).isCloseTo(LATITUDE, offset(1e-9));
+	}
+
+	/** Carré de 100 m dont le côté est porte un sommet décalé de {@code bump} mètres vers l'est */
+	private static Polygon squareWithEastBump(double bump) {
+		return polygon(new double[][]{{0, 0}, {100, 0}, {100 + bump, 50}, {100, 100}, {0, 100}, {0, 0}});
+	}
+
+	/** Carré de 100 m dont le côté nord porte un sommet décalé de {@code bump} mètres vers le nord */
+	private static Polygon squareWithNorthBump(double bump) {
+		return polygon(new double[][]{{0, 0}, {100, 0}, {100, 100}, {50, 100 + bump}, {0, 100}, {0, 0}});
+	}
+
+	/** Sommets en mètres depuis (LONGITUDE, LATITUDE), convertis en degrés */
+	private static Polygon polygon(double[][] meters) {
+		double metersPerDegreeY = 111_320d;
+		double metersPerDegreeX = metersPerDegreeY * Math.cos(Math.toRadians(LATITUDE));
+		Coordinate[] coordinates = new Coordinate[meters.length];
+		for (int i = 0; i < meters.length; i++) {
+			coordinates[i] = new Coordinate(LONGITUDE + meters[i][0] / metersPerDegreeX, LATITUDE + meters[i][1] / metersPerDegreeY);
+		}
+		return GEOMETRY_FACTORY.createPolygon(coordinates);
+	}
+}
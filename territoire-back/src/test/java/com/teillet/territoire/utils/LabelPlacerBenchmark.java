@@ -0,0 +1,66 @@
+package com.teillet.territoire.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durée du placement des étiquettes sur une carte A3 à 600 dpi (objectif : moins de 50 ms pour 5 000 territoires).
+ * Lancer {@link #main(String[])} (hors tests unitaires).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LabelPlacerBenchmark {
+
+	@Param({"5000"})
+	public int labels;
+
+	@Param({"14000"})
+	public int size;
+
+	private List<LabelPlacer.Candidate> candidates;
+	private FontMetrics fontMetrics;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		candidates = LabelPlacerTest.randomCandidates(labels, size, 7);
+		Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+		fontMetrics = g.getFontMetrics(new Font(Font.SANS_SERIF, Font.BOLD, 28));
+		g.dispose();
+	}
+
+	@Benchmark
+	public List<LabelPlacer.PlacedLabel> place() {
+		return LabelPlacer.place(candidates, fontMetrics);
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (RunResult result : new Runner(new OptionsBuilder()
+				.include(LabelPlacerBenchmark.class.getSimpleName())
+				.build()).run()) {
+			System.out.printf("%s étiquettes : %.1f ms%n", result.getParams().getParam("labels"),
+					result.getPrimaryResult().getScore());
+		}
+	}
+}
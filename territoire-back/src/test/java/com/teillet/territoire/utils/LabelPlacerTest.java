@@ -0,0 +1,73 @@
+package com.teillet.territoire.utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class LabelPlacerTest {
+
+	private static FontMetrics fontMetrics;
+
+	@BeforeAll
+	static void measureFont() {
+		Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+		fontMetrics = g.getFontMetrics(new Font(Font.SANS_SERIF, Font.BOLD, 28));
+		g.dispose();
+	}
+
+	@Test
+	void placedLabelsNeverOverlap() {
+		List<LabelPlacer.PlacedLabel> placed = LabelPlacer.place(randomCandidates(3000, 8000, 42), fontMetrics);
+
+		assertThat(placed).isNotEmpty();
+		for (int i = 0; i < placed.size(); i++) {
+			for (int j = i + 1; j < placed.size(); j++) {
+				if (placed.get(i).box().intersects(placed.get(j).box())) {
+					fail("Étiquettes superposées : %s / %s", placed.get(i).text(), placed.get(j).text());
+				}
+			}
+		}
+	}
+
+	@Test
+	void higherPriorityWinsWhenNoOtherPositionFits() {
+		Rectangle area = new Rectangle(90, 90, 20, 20); // trop petite pour accueillir une position décalée
+		List<LabelPlacer.PlacedLabel> placed = LabelPlacer.place(List.of(
+				new LabelPlacer.Candidate("petit", 100, 100, 1, area),
+				new LabelPlacer.Candidate("grand", 100, 100, 10, area)), fontMetrics);
+
+		assertThat(placed).extracting(LabelPlacer.PlacedLabel::text).containsExactly("grand");
+	}
+
+	@Test
+	void collidingLabelMovesAroundItsAnchor() {
+		List<LabelPlacer.PlacedLabel> placed = LabelPlacer.place(List.of(
+				new LabelPlacer.Candidate("T1", 100, 100, 10, null),
+				new LabelPlacer.Candidate("T2", 100, 100, 1, null)), fontMetrics);
+
+		assertThat(placed).hasSize(2);
+		assertThat(placed.get(1).y()).isLessThan(placed.get(0).y()); // première position décalée : au-dessus
+	}
+
+	/** Étiquettes de territoires réparties sur une carte carrée de {@code size} px (600 dpi ~ 14 000 px en A3) */
+	static List<LabelPlacer.Candidate> randomCandidates(int count, int size, long seed) {
+		Random random = new Random(seed);
+		List<LabelPlacer.Candidate> candidates = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int x = random.nextInt(size);
+			int y = random.nextInt(size);
+			int half = 40 + random.nextInt(160);
+			candidates.add(new LabelPlacer.Candidate("T" + i, x, y, half * half,
+					new Rectangle(x - half, y - half, 2 * half, 2 * half)));
+		}
+		return candidates;
+	}
+}
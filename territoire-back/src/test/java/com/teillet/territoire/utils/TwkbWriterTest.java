@@ -0,0 +1,168 @@
+package com.teillet.territoire.utils;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwkbWriterTest {
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+	@Test
+	void zigzagInterleavesSignedValues() {
+		assertThat(TwkbWriter.zigzag(0)).isZero();
+		assertThat(TwkbWriter.zigzag(-1)).isEqualTo(1);
+		assertThat(TwkbWriter.zigzag(1)).isEqualTo(2);
+		assertThat(TwkbWriter.zigzag(-2)).isEqualTo(3);
+		assertThat(TwkbWriter.zigzag(Long.MIN_VALUE)).isEqualTo(-1L); // 2^64 - 1 en non signé
+	}
+
+	@Test
+	void varintUsesSevenBitGroupsLowFirst() throws IOException {
+		assertThat(varint(0)).containsExactly(0x00);
+		assertThat(varint(127)).containsExactly(0x7F);
+		assertThat(varint(128)).containsExactly(0x80, 0x01);
+		assertThat(varint(300)).containsExactly(0xAC, 0x02);
+		assertThat(varint(-1L)).hasSize(10);
+	}
+
+	@Test
+	void pointHeaderMatchesSpecification() {
+		// exemple de la spécification TWKB : POINT(1 2), précision 0 -> 01 00 02 04
+		assertThat(unsigned(TwkbWriter.write(read("POINT (1 2)"), 0))).containsExactly(0x01, 0x00, 0x02, 0x04);
+	}
+
+	@Test
+	void emptyGeometryOnlyWritesHeader() {
+		assertThat(unsigned(TwkbWriter.write(read("POLYGON EMPTY"), 6))).containsExactly(0x03 | (12 << 4), 0x10);
+	}
+
+	@Test
+	void roundTripsMultiPolygonWithHoleAtRequestedPrecision() {
+		Geometry source = read("MULTIPOLYGON (((2.0701234 49.0401234, 2.0712345 49.0401234, 2.0712345 49.0412345, "
+				+ "2.0701234 49.0412345, 2.0701234 49.0401234), (2.0703 49.0403, 2.0705 49.0403, 2.0705 49.0405, "
+				+ "2.0703 49.0403)), ((2.08 49.05, 2.081 49.05, 2.081 49.051, 2.08 49.05)))");
+
+		for (int decimals : new int[]{4, 5, 6}) {
+			Geometry decoded = new TwkbReader(TwkbWriter.write(source, decimals)).read();
+			assertThat(decoded).isInstanceOf(MultiPolygon.class);
+			assertThat(decoded.getNumGeometries()).isEqualTo(2);
+			assertThat(((Polygon) decoded.getGeometryN(0)).getNumInteriorRing()).isEqualTo(1);
+
+			double scale = Math.pow(10, decimals);
+			Coordinate[] expected = source.getCoordinates();
+			Coordinate[] actual = decoded.getCoordinates();
+			assertThat(actual).hasSameSizeAs(expected);
+			for (int i = 0; i < expected.length; i++) {
+				assertThat(actual[i].x).isEqualTo(Math.round(expected[i].x * scale) / scale);
+				assertThat(actual[i].y).isEqualTo(Math.round(expected[i].y * scale) / scale);
+			}
+		}
+	}
+
+	@Test
+	void blockFitsInAFewDozenBytes() {
+		Geometry block = read("POLYGON ((2.0701 49.0401, 2.0704 49.0401, 2.0704 49.0404, 2.0701 49.0404, 2.0701 49.0401))");
+		assertThat(TwkbWriter.write(block, 6).length).isLessThan(40);
+	}
+
+	private static Geometry read(String wkt) {
+		try {
+			return new WKTReader(GEOMETRY_FACTORY).read(wkt);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private static int[] varint(long value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TwkbWriter.writeVarint(out, value);
+		return unsigned(out.toByteArray());
+	}
+
+	private static int[] unsigned(byte[] bytes) {
+		int[] values = new int[bytes.length];
+		for (int i = 0; i < bytes.length; i++) values[i] = bytes[i] & 0xFF;
+		return values;
+	}
+
+	/** Décodeur minimal (Point, Polygon, MultiPolygon), symétrique de l'encodeur */
+	private static final class TwkbReader {
+		private final byte[] bytes;
+		private int position;
+		private double scale;
+		private long x;
+		private long y;
+
+		TwkbReader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		Geometry read() {
+			int header = bytes[position++] & 0xFF;
+			int metadata = bytes[position++] & 0xFF;
+			int type = header & 0x0F;
+			scale = Math.pow(10, unzigzag(header >> 4));
+			if ((metadata & 0x10) != 0) return GEOMETRY_FACTORY.createEmpty(2);
+			return switch (type) {
+				case 1 -> GEOMETRY_FACTORY.createPoint(nextCoordinate());
+				case 3 -> readPolygon();
+				case 6 -> {
+					Polygon[] polygons = new Polygon[(int) readVarint()];
+					for (int i = 0; i < polygons.length; i++) polygons[i] = readPolygon();
+					yield GEOMETRY_FACTORY.createMultiPolygon(polygons);
+				}
+				default -> throw new IllegalArgumentException("Type TWKB non géré : " + type);
+			};
+		}
+
+		private Polygon readPolygon() {
+			int rings = (int) readVarint();
+			LinearRing shell = readRing();
+			List<LinearRing> holes = new ArrayList<>();
+			for (int i = 1; i < rings; i++) holes.add(readRing());
+			return GEOMETRY_FACTORY.createPolygon(shell, holes.toArray(LinearRing[]::new));
+		}
+
+		private LinearRing readRing() {
+			Coordinate[] coordinates = new Coordinate[(int) readVarint()];
+			for (int i = 0; i < coordinates.length; i++) coordinates[i] = nextCoordinate();
+			return GEOMETRY_FACTORY.createLinearRing(coordinates);
+		}
+
+		private Coordinate nextCoordinate() {
+			x += unzigzag(readVarint());
+			y += unzigzag(readVarint());
+			return new Coordinate(x / scale, y / scale);
+		}
+
+		private long readVarint() {
+			long value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = bytes[position++] & 0xFF;
+				value |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		private static long unzigzag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+}
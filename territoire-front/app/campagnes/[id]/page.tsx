@@ -138,8 +138,9 @@ export default function CampaignDetailPage() {
       );
 
       await dispatch(updateRemainingTerritories({ 
-        campaignId: campaign.id, 
-        territories: remainingTerritories 
+        campaignId: campaign.id,
+        previous: campaign.remainingTerritories ?? [],
+        territories: remainingTerritories
       })).unwrap();
 
       toast.success("La liste des territoires restants a été mise à jour avec succès.");
@@ -28,7 +28,7 @@ import { fetchCampaigns } from "@/store/slices/campaign-slice";
 export default function CampaignsPage() {
   const router = useRouter();
   const dispatch = useAppDispatch();
-  const { campaigns, loading } = useAppSelector(state => state.campaigns);
+  const { campaigns, campaignsPage, campaignsTotalPages, loading } = useAppSelector(state => state.campaigns);
 
   // Fetch campaigns on component mount
   useEffect(() => {
@@ -115,9 +115,9 @@ export default function CampaignsPage() {
                       </span>
                     </TableCell>
                     <TableCell className="py-4">
-                      {campaign.territories.length} territoires
+                      {campaign.territoriesCount} territoires
                       {campaign.closed &&
-                        ` (${campaign.territories.length - campaign.remainingTerritories.length} utilisés)`}
+                        ` (${campaign.territoriesCount - campaign.remainingTerritoriesCount} utilisés)`}
                     </TableCell>
                     <TableCell className="py-4">
                       <Button
@@ -133,6 +133,29 @@ export default function CampaignsPage() {
                 ))}
               </TableBody>
             </Table>
+            {campaignsTotalPages > 1 && (
+              <div className="flex justify-end items-center gap-4 pt-6">
+                <Button
+                  variant="outline"
+                  size="sm"
+                  disabled={campaignsPage === 0}
+                  onClick={() => dispatch(fetchCampaigns(campaignsPage - 1))}
+                >
+                  Précédent
+                </Button>
+                <span className="text-sm text-gray-500">
+                  Page {campaignsPage + 1} sur {campaignsTotalPages}
+                </span>
+                <Button
+                  variant="outline"
+                  size="sm"
+                  disabled={campaignsPage + 1 >= campaignsTotalPages}
+                  onClick={() => dispatch(fetchCampaigns(campaignsPage + 1))}
+                >
+                  Suivant
+                </Button>
+              </div>
+            )}
           </CardContent>
         </Card>
       )}
@@ -5,7 +5,7 @@ import "leaflet/dist/leaflet.css";
 import {useDispatch, useSelector} from "react-redux";
 import {AppDispatch, RootState} from "@/store/store";
 import {fetchTerritories} from "@/store/slices/territory-slice";
-import TerritoryMap from "@/components/territory/territory-map";
+import TerritoryMap, {TERRITORY_MAP_ZOOM} from "@/components/territory/territory-map";
 import {DataTable} from "@/components/territory/territory-data-table";
 import {territoryDataColumns} from "@/components/territory/territory-data-columns";
 import {useAuth} from "@/hooks/use-auth";
@@ -38,7 +38,7 @@ const TerritoryPage = () => {
     // Chargement initial des territoires
     useEffect(() => {
         if (isAuthenticated) {
-            dispatch(fetchTerritories());
+            dispatch(fetchTerritories({zoom: TERRITORY_MAP_ZOOM}));
         }
     }, [dispatch, isAuthenticated]);
 
@@ -27,7 +27,7 @@ import {
 // Using the Campaign type from the Redux state
 import { useAppDispatch, useAppSelector } from "@/store/store";
 import { 
-  fetchCampaigns, 
+  fetchPreviousCampaignCandidates, 
   createCampaign, 
   createCampaignWithRemainingTerritories 
 } from "@/store/slices/campaign-slice";
@@ -39,7 +39,7 @@ interface CreateCampaignDialogProps {
 export function CreateCampaignDialog({ onCampaignCreated }: CreateCampaignDialogProps) {
   const router = useRouter();
   const dispatch = useAppDispatch();
-  const { campaigns, loading, error } = useAppSelector(state => state.campaigns);
+  const { previousCampaignCandidates, loading, error } = useAppSelector(state => state.campaigns);
 
   const [open, setOpen] = useState(false);
   const [selectedPreviousCampaign, setSelectedPreviousCampaign] = useState<string | null>(null);
@@ -50,15 +50,13 @@ export function CreateCampaignDialog({ onCampaignCreated }: CreateCampaignDialog
     endDate: "",
   });
 
-  // Filtered closed campaigns with remaining territories
-  const closedCampaigns = campaigns.filter(campaign => 
-    campaign.closed && campaign.remainingTerritories.length > 0
-  );
+  // Closed campaigns with remaining territories, fetched on their own (not limited to the current list page)
+  const closedCampaigns = previousCampaignCandidates;
 
-  // Fetch campaigns when the dialog opens
+  // Fetch candidate campaigns when the dialog opens, without touching the paginated list
   useEffect(() => {
     if (open) {
-      dispatch(fetchCampaigns());
+      dispatch(fetchPreviousCampaignCandidates());
     }
   }, [open, dispatch]);
 
@@ -198,7 +196,7 @@ export function CreateCampaignDialog({ onCampaignCreated }: CreateCampaignDialog
                   <SelectItem value="none" key="none">Aucune campagne précédente</SelectItem>
                   {closedCampaigns.map((campaign) => (
                     <SelectItem key={campaign.id} value={campaign.id}>
-                      {campaign.name} ({campaign.remainingTerritories.length} territoires)
+                      {campaign.name} ({campaign.remainingTerritoriesCount} territoires)
                     </SelectItem>
                   ))}
                 </SelectContent>
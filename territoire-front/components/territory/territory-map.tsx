@@ -22,6 +22,9 @@ const GeoJSON = dynamic(() => import("react-leaflet").then((mod) => mod.GeoJSON)
 
 const defaultCenter: [number, number]  = [48.695874, 2.367055];
 
+// Zoom d'ouverture de la carte, transmis à l'API pour recevoir des enveloppes simplifiées à la bonne échelle
+export const TERRITORY_MAP_ZOOM = 15;
+
 
 interface TerritoryCollectionProps {
     geoJsonData: TerritoryCollection;
@@ -56,7 +59,7 @@ const TerritoryMap: React.FC<TerritoryCollectionProps> = ({geoJsonData}) => {
             >
                 <MapContainer
                     center={center}
-                    zoom={15}
+                    zoom={TERRITORY_MAP_ZOOM}
                     style={{ height: "100%", width: "100%", zIndex: 0 }}
                 >
                     <MapUpdater isSidebarOpen={sidebar.state === "expanded"} isExpanded={isExpanded} />
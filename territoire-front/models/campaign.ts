@@ -9,4 +9,32 @@ export interface Campaign {
   closed: boolean;
   territories: SimplifiedTerritory[];
   remainingTerritories: SimplifiedTerritory[];
+  assignmentsCount?: number;
+}
+
+// Campagne telle que renvoyée par la liste paginée : compteurs seulement
+export interface CampaignSummary {
+  id: string;
+  name: string;
+  description: string;
+  startDate: string;
+  endDate: string;
+  closed: boolean;
+  territoriesCount: number;
+  remainingTerritoriesCount: number;
+  assignmentsCount: number;
+}
+
+export function toCampaignSummary(campaign: Campaign): CampaignSummary {
+  return {
+    id: campaign.id,
+    name: campaign.name,
+    description: campaign.description,
+    startDate: campaign.startDate,
+    endDate: campaign.endDate,
+    closed: campaign.closed,
+    territoriesCount: campaign.territories.length,
+    remainingTerritoriesCount: campaign.remainingTerritories.length,
+    assignmentsCount: campaign.assignmentsCount ?? 0,
+  };
 }
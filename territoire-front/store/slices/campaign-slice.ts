@@ -1,14 +1,18 @@
 import {createAsyncThunk, createSlice} from '@reduxjs/toolkit';
-import {Campaign} from "@/models/campaign";
+import {Campaign, CampaignSummary, toCampaignSummary} from "@/models/campaign";
 import {authFetch} from "@/utils/auth-fetch";
 import {SimplifiedTerritory} from "@/models/territory";
 import {CampaignStatistics} from "@/models/campaign-statistics";
 import { toast } from "sonner";
 
 const BASE_URL = "/api/campagnes";
+const PAGE_SIZE = 20;
 
 interface CampaignState {
-    campaigns: Campaign[];
+    campaigns: CampaignSummary[];
+    campaignsPage: number;
+    campaignsTotalPages: number;
+    previousCampaignCandidates: CampaignSummary[];
     currentCampaign: Campaign | null;
     campaignStatistics: CampaignStatistics | null;
     loading: boolean;
@@ -24,6 +28,9 @@ interface CampaignState {
 
 const initialState: CampaignState = {
     campaigns: [],
+    campaignsPage: 0,
+    campaignsTotalPages: 0,
+    previousCampaignCandidates: [],
     currentCampaign: null,
     campaignStatistics: null,
     loading: false,
@@ -37,11 +44,11 @@ const initialState: CampaignState = {
     isFetchingCampaign: false,
 };
 
-// Thunk pour récupérer toutes les campagnes
+// Thunk pour récupérer une page de campagnes (résumés avec compteurs)
 export const fetchCampaigns = createAsyncThunk(
     "campaigns/fetchCampaigns",
-    async (_, { rejectWithValue }) => {
-        const response = await authFetch(BASE_URL);
+    async (page: number | undefined, { rejectWithValue }) => {
+        const response = await authFetch(`${BASE_URL}?page=${page ?? 0}&size=${PAGE_SIZE}`);
 
         if (!response.ok) {
             return rejectWithValue("Erreur lors de la récupération des campagnes");
@@ -65,6 +72,24 @@ export const fetchCampaigns = createAsyncThunk(
     }
 );
 
+// Thunk pour récupérer les campagnes clôturées ayant des territoires restants, indépendamment de la liste paginée
+export const fetchPreviousCampaignCandidates = createAsyncThunk(
+    "campaigns/fetchPreviousCampaignCandidates",
+    async (_, { rejectWithValue }) => {
+        const response = await authFetch(`${BASE_URL}/cloturees-avec-territoires-restants`);
+
+        if (!response.ok) {
+            return rejectWithValue("Erreur lors de la récupération des campagnes précédentes");
+        }
+
+        try {
+            return await response.json();
+        } catch (error) {
+            return rejectWithValue(error instanceof Error ? error.message : "Une erreur inconnue s'est produite");
+        }
+    }
+);
+
 // Thunk pour récupérer une campagne spécifique
 export const fetchCampaign = createAsyncThunk(
     "campaigns/fetchCampaign",
@@ -137,25 +162,28 @@ export const createCampaignWithRemainingTerritories = createAsyncThunk(
     }
 );
 
-// Thunk pour mettre à jour les territoires restants d'une campagne
+// Thunk pour mettre à jour les territoires restants d'une campagne : seuls les ajouts et retraits sont envoyés
 export const updateRemainingTerritories = createAsyncThunk(
     "campaigns/updateRemainingTerritories",
-    async ({ campaignId, territories }: { campaignId: string, territories: SimplifiedTerritory[] }, { rejectWithValue }) => {
-        const response = await authFetch(`${BASE_URL}/${campaignId}/territoires-restants`, {
-            method: "PUT",
-            headers: { "Content-Type": "application/json" },
-            body: JSON.stringify(territories),
-        });
+    async ({ campaignId, previous, territories }: { campaignId: string, previous: SimplifiedTerritory[], territories: SimplifiedTerritory[] }, { rejectWithValue }) => {
+        const previousIds = new Set(previous.map(t => t.territoryId));
+        const wantedIds = new Set(territories.map(t => t.territoryId));
+        const added = [...wantedIds].filter(id => !previousIds.has(id));
+        const removed = [...previousIds].filter(id => !wantedIds.has(id));
+
+        if (added.length > 0 || removed.length > 0) {
+            const response = await authFetch(`${BASE_URL}/${campaignId}/territoires-restants`, {
+                method: "PATCH",
+                headers: { "Content-Type": "application/json" },
+                body: JSON.stringify({ added, removed }),
+            });
 
-        if (!response.ok) {
-            return rejectWithValue("Échec de la mise à jour des territoires restants");
+            if (!response.ok) {
+                return rejectWithValue("Échec de la mise à jour des territoires restants");
+            }
         }
 
-        try {
-            return await response.json();
-        } catch (error) {
-            return rejectWithValue(error instanceof Error ? error.message : "Une erreur inconnue s'est produite");
-        }
+        return { campaignId, remainingTerritories: territories };
     }
 );
 
@@ -228,7 +256,9 @@ const campaignSlice = createSlice({
             .addCase(fetchCampaigns.fulfilled, (state, action) => {
                 state.loading = false;
                 state.isFetchingCampaigns = false;
-                state.campaigns = action.payload;
+                state.campaigns = action.payload.content;
+                state.campaignsPage = action.payload.page.number;
+                state.campaignsTotalPages = action.payload.page.totalPages;
             })
             .addCase(fetchCampaigns.rejected, (state, action) => {
                 state.loading = false;
@@ -237,6 +267,14 @@ const campaignSlice = createSlice({
                 toast.error(state.error || "Erreur lors de la récupération des campagnes");
             })
 
+            // Campagnes précédentes proposées à la création
+            .addCase(fetchPreviousCampaignCandidates.fulfilled, (state, action) => {
+                state.previousCampaignCandidates = action.payload;
+            })
+            .addCase(fetchPreviousCampaignCandidates.rejected, (state, action) => {
+                toast.error((action.payload as string) || "Erreur lors de la récupération des campagnes précédentes");
+            })
+
             // Récupération d'une campagne spécifique
             .addCase(fetchCampaign.pending, (state) => {
                 state.loading = true;
@@ -262,7 +300,7 @@ const campaignSlice = createSlice({
             })
             .addCase(createCampaign.fulfilled, (state, action) => {
                 state.creating = false;
-                state.campaigns.push(action.payload);
+                state.campaigns.unshift(toCampaignSummary(action.payload));
             })
             .addCase(createCampaign.rejected, (state, action) => {
                 state.creating = false;
@@ -277,7 +315,7 @@ const campaignSlice = createSlice({
             })
             .addCase(createCampaignWithRemainingTerritories.fulfilled, (state, action) => {
                 state.creating = false;
-                state.campaigns.push(action.payload);
+                state.campaigns.unshift(toCampaignSummary(action.payload));
             })
             .addCase(createCampaignWithRemainingTerritories.rejected, (state, action) => {
                 state.creating = false;
@@ -292,12 +330,15 @@ const campaignSlice = createSlice({
             })
             .addCase(updateRemainingTerritories.fulfilled, (state, action) => {
                 state.updating = false;
-                state.currentCampaign = action.payload;
+                const { campaignId, remainingTerritories } = action.payload;
+                if (state.currentCampaign?.id === campaignId) {
+                    state.currentCampaign.remainingTerritories = remainingTerritories;
+                }
 
                 // Mettre à jour la campagne dans la liste des campagnes si elle existe
-                const index = state.campaigns.findIndex(c => c.id === action.payload.id);
+                const index = state.campaigns.findIndex(c => c.id === campaignId);
                 if (index !== -1) {
-                    state.campaigns[index] = action.payload;
+                    state.campaigns[index].remainingTerritoriesCount = remainingTerritories.length;
                 }
             })
             .addCase(updateRemainingTerritories.rejected, (state, action) => {
@@ -318,7 +359,7 @@ const campaignSlice = createSlice({
                 // Mettre à jour la campagne dans la liste des campagnes si elle existe
                 const index = state.campaigns.findIndex(c => c.id === action.payload.id);
                 if (index !== -1) {
-                    state.campaigns[index] = action.payload;
+                    state.campaigns[index] = toCampaignSummary(action.payload);
                 }
             })
             .addCase(closeCampaign.rejected, (state, action) => {
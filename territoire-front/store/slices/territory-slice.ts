@@ -185,10 +185,12 @@ export const updateTerritory = createAsyncThunk(
     }
 );
 
-export const fetchTerritories = createAsyncThunk<TerritoryCollection>(
+// zoom : géométries simplifiées pour ce niveau de zoom (HullDetail côté API), complètes sinon
+export const fetchTerritories = createAsyncThunk<TerritoryCollection, { zoom?: number } | void>(
     "territories/fetchGeoJson",
-    async (_, {rejectWithValue}) => {
-        const response = await authFetch(`${BASE_URL}/geojson`);
+    async (params, {rejectWithValue}) => {
+        const query = params?.zoom !== undefined ? `?zoom=${params.zoom}` : "";
+        const response = await authFetch(`${BASE_URL}/geojson${query}`);
 
         if (!response.ok) {
             return rejectWithValue("Erreur lors de la récupération des territoires (GeoJSON)");